@@ -1,16 +1,21 @@
 package io.hohichh.marketplace.user;
 
+import io.hohichh.marketplace.user.config.NativeRuntimeHints;
 import org.springframework.boot.*;
 import org.springframework.boot.autoconfigure.*;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.Clock;
 
 @SpringBootApplication
 @EnableCaching
 @EnableFeignClients
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class UserApplication {
 	@Bean
 	public Clock clock() {
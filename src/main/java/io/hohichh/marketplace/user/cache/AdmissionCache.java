@@ -0,0 +1,51 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * {@link Cache} decorator that only caches values of keys requested often enough (TinyLFU-style admission).
+ * <p>
+ * Every synchronized load ({@code @Cacheable(sync = true)}) is counted in a {@link FrequencySketch}.
+ * A miss for a key whose estimated frequency is below the threshold is served by the value loader
+ * without writing the result, so one-off lookups do not take space from entries that are requested
+ * repeatedly. Once a key reaches the threshold, loads go through the decorated cache as usual.
+ * <p>
+ * Explicit writes ({@link #put}, e.g. by cache warm-up or precomputation) are always passed through.
+ */
+public class AdmissionCache extends DelegatingCache {
+
+    private final FrequencySketch sketch;
+    private final int minFrequency;
+
+    /**
+     * @param delegate     The cache to protect.
+     * @param sketch       Access frequencies of the keys of this cache.
+     * @param minFrequency Minimum estimated number of recent requests, including the current one, for a value to be cached.
+     */
+    public AdmissionCache(Cache delegate, FrequencySketch sketch, int minFrequency) {
+        super(delegate);
+        this.sketch = sketch;
+        this.minFrequency = minFrequency;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        sketch.increment(key);
+        if (sketch.frequency(key) >= minFrequency) {
+            return delegate.get(key, valueLoader);
+        }
+
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+}
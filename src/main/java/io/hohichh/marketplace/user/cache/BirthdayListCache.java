@@ -0,0 +1,50 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Eviction of the {@code usersWithBirthdayToday} lists affected by a change of a user.
+ * <p>
+ * The lists are keyed by date, see {@link TodayKeyGenerator}. A change only evicts today's or tomorrow's
+ * list if the user was or is born on that day, so writes after the nightly precomputation keep the
+ * precomputed list of the next day.
+ */
+@Component
+public class BirthdayListCache {
+
+    private static final String CACHE_NAME = "usersWithBirthdayToday";
+
+    private final CacheManager cacheManager;
+    private final TodayKeyGenerator todayKeyGenerator;
+
+    public BirthdayListCache(CacheManager cacheManager, TodayKeyGenerator todayKeyGenerator) {
+        this.cacheManager = cacheManager;
+        this.todayKeyGenerator = todayKeyGenerator;
+    }
+
+    /**
+     * Evicts the lists including users born on any of the given dates once the current transaction commits,
+     * or at once outside a transaction. Evicting earlier would let a read in between put the old list back.
+     *
+     * @param birthDates Birth dates before and after the change; {@code null} ones are skipped.
+     */
+    public void evictListsIncluding(LocalDate... birthDates) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            return;
+        }
+        Cache afterCommit = new TransactionAwareCacheDecorator(cache);
+        Stream.of(birthDates)
+                .filter(Objects::nonNull)
+                .flatMap(birthDate -> todayKeyGenerator.keysListing(birthDate).stream())
+                .distinct()
+                .forEach(afterCommit::evict);
+    }
+}
@@ -0,0 +1,163 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key reads and writes on the application caches.
+ * <p>
+ * For Redis-backed caches all keys are read with a single {@code MGET} and written with one pipeline,
+ * using the key prefix, value serializer and time-to-live configured for the cache, so the entries are
+ * interchangeable with the ones written by {@code @Cacheable}. Other caches fall back to per-key operations.
+ * Redis failures are treated as misses and skipped writes, like failures of a single cache call would be.
+ */
+@Component
+public class CacheBatchOperations {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheBatchOperations.class);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+
+    public CacheBatchOperations(CacheManager cacheManager, StringRedisTemplate redisTemplate) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * @param cacheName The cache to read.
+     * @param keys      The keys to look up.
+     * @param type      The type of the cached values.
+     * @return The cached values by key; keys without an entry are absent.
+     */
+    public <K, V> Map<K, V> getAll(String cacheName, Collection<K> keys, Class<V> type) {
+        Map<K, V> found = new LinkedHashMap<>();
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || keys.isEmpty()) {
+            return found;
+        }
+
+        if (!(unwrap(cache) instanceof RedisCache redisCache)) {
+            for (K key : keys) {
+                V value = cache.get(key, type);
+                if (value != null) {
+                    found.put(key, value);
+                }
+            }
+            return found;
+        }
+
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        List<K> orderedKeys = new ArrayList<>(keys);
+        byte[][] rawKeys = orderedKeys.stream()
+                .map(key -> rawKey(redisCache, configuration, key))
+                .toArray(byte[][]::new);
+
+        List<byte[]> rawValues;
+        try {
+            rawValues = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                    connection.stringCommands().mGet(rawKeys));
+        } catch (RuntimeException e) {
+            logger.warn("Batch read of {} keys from cache {} failed, treating all as misses: {}",
+                    rawKeys.length, cacheName, e.getMessage());
+            return found;
+        }
+        if (rawValues == null) {
+            return found;
+        }
+
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            byte[] rawValue = rawValues.get(i);
+            if (rawValue == null) {
+                continue;
+            }
+            Object value = configuration.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+            if (type.isInstance(value)) {
+                found.put(orderedKeys.get(i), type.cast(value));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes all entries to the cache.
+     *
+     * @param cacheName The cache to write.
+     * @param entries   Values by key; {@code null} values are skipped.
+     */
+    public void putAll(String cacheName, Map<?, ?> entries) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || entries.isEmpty()) {
+            return;
+        }
+
+        if (!(unwrap(cache) instanceof RedisCache redisCache)) {
+            entries.forEach((key, value) -> {
+                if (value != null) {
+                    cache.put(key, value);
+                }
+            });
+            return;
+        }
+
+        RedisCacheConfiguration configuration = redisCache.getCacheConfiguration();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                entries.forEach((key, value) -> {
+                    if (value == null) {
+                        return;
+                    }
+                    byte[] rawValue = toBytes(configuration.getValueSerializationPair().write(value));
+                    Duration ttl = configuration.getTtlFunction().getTimeToLive(key, value);
+                    Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                            ? Expiration.persistent()
+                            : Expiration.from(ttl);
+                    connection.stringCommands().set(rawKey(redisCache, configuration, key), rawValue,
+                            expiration, SetOption.upsert());
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Batch write of {} entries to cache {} failed: {}", entries.size(), cacheName, e.getMessage());
+        }
+    }
+
+    private static Cache unwrap(Cache cache) {
+        Cache unwrapped = cache;
+        while (unwrapped instanceof DelegatingCache delegating) {
+            unwrapped = delegating.getDelegate();
+        }
+        return unwrapped;
+    }
+
+    private static byte[] rawKey(RedisCache cache, RedisCacheConfiguration configuration, Object key) {
+        // same layout as RedisCache#createCacheKey for keys rendered with toString(), such as UUIDs
+        String cacheKey = configuration.usePrefix()
+                ? configuration.getKeyPrefixFor(cache.getName()) + key
+                : String.valueOf(key);
+        return toBytes(configuration.getKeySerializationPair().write(cacheKey));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,290 @@
+package io.hohichh.marketplace.user.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.model.CardInfo;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.service.ExistenceFilters;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evicts cache entries when the database announces a change of a {@code users} or {@code card_info} row,
+ * so entries do not outlive rows changed outside {@code UserServiceImpl}: by ops scripts, by the
+ * {@code ON DELETE CASCADE} of cards or by other nodes, whose Hibernate second-level cache is not shared.
+ * <p>
+ * Each node holds one connection outside the pool that {@code LISTEN}s on the channel fed by the triggers of
+ * {@code 005-notify-cache-invalidation.xml}. A change evicts this node's second-level cache entries of the row,
+ * unless this node made it through Hibernate, and adds the row's email or card number to the existence filters.
+ * The shared Redis entries of the row are evicted by a single node: the one that made the change, or for changes
+ * made outside the application, the first node to claim the notification in Redis. Notifications sent while the
+ * connection is down are lost, so after reconnecting everything that may have missed one is cleared.
+ * Disable it with {@code application.cache.invalidation.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "application.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationListener implements SmartLifecycle {
+
+    static final String CHANNEL = "cache_invalidation";
+
+    private static final List<String> CACHES = List.of(
+            "users", "usersWithBirthdayToday", "expiredCards", UserCardsCache.USER_CARDS_CACHE);
+
+    private static final String CLAIM_PREFIX = "cache-invalidation:";
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final JdbcConnectionDetails connectionDetails;
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheInvalidationNode node;
+    private final BirthdayListCache birthdayListCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ExistenceFilters existenceFilters;
+    private final ObjectMapper objectMapper;
+    private final ApplicationCacheProperties.Invalidation settings;
+
+    private volatile Thread listener;
+
+    public CacheInvalidationListener(JdbcConnectionDetails connectionDetails,
+                                     CacheManager cacheManager,
+                                     StringRedisTemplate redisTemplate,
+                                     CacheInvalidationNode node,
+                                     BirthdayListCache birthdayListCache,
+                                     EntityManagerFactory entityManagerFactory,
+                                     ExistenceFilters existenceFilters,
+                                     ObjectMapper objectMapper,
+                                     ApplicationCacheProperties properties) {
+        this.connectionDetails = connectionDetails;
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.node = node;
+        this.birthdayListCache = birthdayListCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.existenceFilters = existenceFilters;
+        this.objectMapper = objectMapper;
+        this.settings = properties.invalidation();
+    }
+
+    @Override
+    public void start() {
+        Thread started = new Thread(this::listen, "cache-invalidation-listener");
+        started.setDaemon(true);
+        listener = started;
+        started.start();
+    }
+
+    @Override
+    public void stop() {
+        Thread running = listener;
+        if (running == null) {
+            return;
+        }
+        listener = null;
+        running.interrupt();
+        try {
+            running.join(settings.pollTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return listener != null;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (listener == Thread.currentThread()) {
+            try (Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+                    connectionDetails.getUsername(), connectionDetails.getPassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for cache invalidations on channel {}", CHANNEL);
+                if (reconnecting) {
+                    evictAll();
+                }
+                reconnecting = true;
+                receive(connection);
+            } catch (SQLException e) {
+                if (listener != Thread.currentThread()) {
+                    return;
+                }
+                logger.warn("Cache invalidation listener lost its connection, reconnecting in {}",
+                        settings.reconnectDelay(), e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(settings.reconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        int timeoutMillis = (int) settings.pollTimeout().toMillis();
+        while (listener == Thread.currentThread()) {
+            PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+            if (notifications == null || notifications.length == 0) {
+                // a silently dropped connection delivers nothing, so make sure it is still there
+                if (!connection.isValid(timeoutMillis / 1000 + 1)) {
+                    throw new SQLException("Connection is no longer valid");
+                }
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                handle(notification.getParameter());
+            }
+        }
+    }
+
+    /**
+     * Evicts what depends on the row described by one notification.
+     */
+    void handle(String payload) {
+        RowChange change;
+        try {
+            change = objectMapper.readValue(payload, RowChange.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed cache invalidation: {}", payload, e);
+            return;
+        }
+
+        switch (change.entity()) {
+            case "user", "card" -> {
+                boolean ownWrite = node.isSelf(change.node());
+                if (ownWrite || (!node.isApplicationNode(change.node()) && claim(change, payload))) {
+                    evictShared(change);
+                }
+                // this node's writes went through its Hibernate, which has already updated its second-level cache
+                if (!ownWrite) {
+                    evictSecondLevelCache(change);
+                }
+                recordExistence(change);
+            }
+            default -> logger.warn("Ignoring cache invalidation of unknown entity: {}", payload);
+        }
+    }
+
+    /**
+     * Evicts the Redis entries of the row, which all nodes share.
+     */
+    private void evictShared(RowChange change) {
+        if (change.entity().equals("user")) {
+            evict("users", change.id());
+            birthdayListCache.evictListsIncluding(change.birthDate());
+        } else {
+            evict("users", change.userId());
+            evict(UserCardsCache.USER_CARDS_CACHE, change.userId());
+            clear("expiredCards");
+        }
+    }
+
+    private void evictSecondLevelCache(RowChange change) {
+        org.hibernate.Cache secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (change.entity().equals("user")) {
+            secondLevelCache.evictEntityData(User.class, change.id());
+            if (change.removed()) {
+                // the email-to-id region cannot be evicted by email
+                secondLevelCache.evictNaturalIdData(User.class);
+            }
+        } else {
+            secondLevelCache.evictEntityData(CardInfo.class, change.id());
+            secondLevelCache.evictCollectionData(User.class.getName() + ".cards", change.userId());
+            // cached card queries are only invalidated by writes of this node's Hibernate
+            secondLevelCache.evictQueryRegions();
+            if (change.removed()) {
+                secondLevelCache.evictNaturalIdData(CardInfo.class);
+            }
+        }
+    }
+
+    private void recordExistence(RowChange change) {
+        if (change.removed()) {
+            return;
+        }
+        if (change.email() != null) {
+            existenceFilters.recordEmail(change.email());
+        }
+        if (change.number() != null) {
+            existenceFilters.recordCardNumber(change.number());
+        }
+    }
+
+    /**
+     * Claims the shared evictions of a change made outside the application, so only one node performs them.
+     * Identical payloads of one transaction are delivered once, and the payload includes the transaction id,
+     * so it identifies the notification. If Redis cannot be asked, this node evicts anyway.
+     */
+    private boolean claim(RowChange change, String payload) {
+        if (change.tx() == null) {
+            return true;
+        }
+        String key = CLAIM_PREFIX + change.tx() + ":"
+                + UUID.nameUUIDFromBytes(payload.getBytes(StandardCharsets.UTF_8));
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, node.name(), settings.claimTtl()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not claim cache invalidation {}, evicting anyway", key, e);
+            return true;
+        }
+    }
+
+    /**
+     * Clears everything a missed notification could have left stale.
+     */
+    void evictAll() {
+        CACHES.forEach(this::clear);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        logger.info("Cleared caches after reconnecting, as invalidations may have been missed");
+    }
+
+    private void evict(String cacheName, UUID key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * The payload sent by the triggers; {@code email} and {@code birthDate} are set for users, {@code userId} and
+     * {@code number} for cards. {@code removed} marks a deleted row or the old values of a changed one.
+     * {@code node} is the {@code application_name} of the writing session and {@code tx} its transaction id;
+     * both are missing from notifications sent before the triggers included them.
+     */
+    record RowChange(String entity, UUID id, UUID userId, String email, LocalDate birthDate, String number,
+                     boolean removed, String node, Long tx) {
+    }
+}
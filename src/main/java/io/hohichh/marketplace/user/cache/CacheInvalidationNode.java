@@ -0,0 +1,51 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identity of this node in the cache invalidation notifications.
+ * <p>
+ * Pooled connections carry {@link #name()} as their PostgreSQL {@code application_name} (see
+ * {@code CacheInvalidationConfig}), which the triggers send along with each change.
+ * {@link CacheInvalidationListener} can then tell its own writes, which Hibernate has already handled on this
+ * node, from those of other nodes and from writes made outside the application.
+ */
+@Component
+@ConditionalOnProperty(name = "application.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationNode {
+
+    private final String prefix;
+    private final String name;
+
+    public CacheInvalidationNode(@Value("${spring.application.name:user-app}") String applicationName) {
+        this.prefix = applicationName + "/";
+        this.name = prefix + UUID.randomUUID();
+    }
+
+    /**
+     * @return The {@code application_name} of this node's connections, unique per running instance.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @param node The {@code application_name} of the connection that made a change, if any.
+     * @return {@code true} if this node made the change.
+     */
+    public boolean isSelf(String node) {
+        return name.equals(node);
+    }
+
+    /**
+     * @param node The {@code application_name} of the connection that made a change, if any.
+     * @return {@code true} if a node of this application made the change, this one or another.
+     */
+    public boolean isApplicationNode(String node) {
+        return node != null && node.startsWith(prefix);
+    }
+}
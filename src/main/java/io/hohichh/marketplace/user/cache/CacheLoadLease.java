@@ -0,0 +1,36 @@
+package io.hohichh.marketplace.user.cache;
+
+/**
+ * Cluster-wide, time-bounded permission to load a cache entry.
+ * <p>
+ * Only the holder of a lease is expected to run the expensive loader for a key;
+ * other nodes wait for the entry to appear in the shared cache instead.
+ */
+public interface CacheLoadLease {
+
+    /**
+     * Lease that is never contended, for single-node setups and tests.
+     */
+    CacheLoadLease LOCAL = (cacheName, key) -> () -> { };
+
+    /**
+     * Tries to take the lease for a cache entry.
+     *
+     * @param cacheName The name of the cache.
+     * @param key       The cache key.
+     * @return A handle to release the lease, or {@code null} if another node currently holds it.
+     */
+    Handle tryAcquire(String cacheName, Object key);
+
+    /**
+     * An acquired lease.
+     */
+    @FunctionalInterface
+    interface Handle {
+
+        /**
+         * Releases the lease if it is still held by this handle.
+         */
+        void release();
+    }
+}
@@ -0,0 +1,123 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link Cache} decorator that protects synchronized ({@code @Cacheable(sync = true)}) loads
+ * against cache stampedes.
+ * <p>
+ * On a miss, only one thread per key and node runs the value loader; concurrent callers for the
+ * same key wait for its result. Across nodes, the loader additionally takes a {@link CacheLoadLease};
+ * a node that cannot get the lease polls the shared cache for the entry the lease holder is loading
+ * and only loads itself if nothing appears within the wait limit.
+ * <p>
+ * Unlike {@code RedisCache#get(Object, Callable)}, loads of different keys never block each other.
+ */
+public class CoalescingCache extends DelegatingCache {
+
+    private final CacheLoadLease lease;
+    private final long leaseWaitNanos;
+    private final long pollIntervalNanos;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    public CoalescingCache(Cache delegate, CacheLoadLease lease, Duration leaseWait, Duration pollInterval) {
+        super(delegate);
+        this.lease = lease;
+        this.leaseWaitNanos = leaseWait.toNanos();
+        this.pollIntervalNanos = pollInterval.toNanos();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return (T) awaitLoad(inFlight);
+        }
+
+        try {
+            Object value = loadWithLease(key, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, load);
+        }
+    }
+
+    private Object loadWithLease(Object key, Callable<?> valueLoader) {
+        // another local leader may have finished between our miss and taking the slot
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return cached.get();
+        }
+
+        CacheLoadLease.Handle handle = lease.tryAcquire(getName(), key);
+        if (handle == null) {
+            ValueWrapper loadedElsewhere = pollForRemoteLoad(key);
+            if (loadedElsewhere != null) {
+                return loadedElsewhere.get();
+            }
+        }
+
+        try {
+            Object value = valueLoader.call();
+            if (value != null) {
+                delegate.put(key, value);
+            }
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            if (handle != null) {
+                handle.release();
+            }
+        }
+    }
+
+    private ValueWrapper pollForRemoteLoad(Object key) {
+        long deadline = System.nanoTime() + leaseWaitNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(pollIntervalNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            ValueWrapper cached = delegate.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return null;
+    }
+
+    private static Object awaitLoad(CompletableFuture<Object> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Author: Yelizaveta Verkovich aka Hohich
+ * Task: Replace default JDK serialization of cached DTOs with a compact binary format
+ */
+
+package io.hohichh.marketplace.user.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link RedisSerializer} that stores a single, statically known value type as Jackson Smile
+ * (binary JSON) behind a small versioned header.
+ * <p>
+ * Layout of a stored value:
+ * <pre>
+ * [magic:1][schemaVersion:1][flags:1]([rawLength:4] if compressed)[payload]
+ * </pre>
+ * Payloads larger than the compression threshold are LZ4-compressed when that pays off.
+ * Values written with a different magic byte or schema version are reported as absent,
+ * so a DTO change or a format switch turns into a cache miss instead of a deserialization error.
+ *
+ * @param <T> The type of the cached value.
+ */
+public class CompactRedisSerializer<T> implements RedisSerializer<T> {
+
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte FLAG_LZ4 = 0x01;
+    private static final int HEADER_LENGTH = 3;
+    private static final int RAW_LENGTH_FIELD = Integer.BYTES;
+
+    private static final Logger logger = LoggerFactory.getLogger(CompactRedisSerializer.class);
+
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final byte schemaVersion;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+
+    /**
+     * Creates a serializer for the given value type.
+     *
+     * @param smileMapper          Jackson mapper backed by a Smile factory.
+     * @param type                 The type of values stored in the cache.
+     * @param schemaVersion        Version of the value's shape; bump it on incompatible DTO changes.
+     * @param compressionThreshold Payload size in bytes above which LZ4 is applied; negative disables compression.
+     */
+    public CompactRedisSerializer(ObjectMapper smileMapper,
+                                  JavaType type,
+                                  int schemaVersion,
+                                  int compressionThreshold) {
+        if (schemaVersion < 0 || schemaVersion > 0xFF) {
+            throw new IllegalArgumentException("Schema version must fit into one byte: " + schemaVersion);
+        }
+        this.writer = smileMapper.writerFor(type);
+        this.reader = smileMapper.readerFor(type);
+        this.schemaVersion = (byte) schemaVersion;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        byte[] payload;
+        try {
+            payload = writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write cache value as Smile", e);
+        }
+
+        if (compressionThreshold >= 0 && payload.length > compressionThreshold) {
+            byte[] compressed = compress(payload);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+
+        byte[] result = new byte[HEADER_LENGTH + payload.length];
+        writeHeader(result, (byte) 0);
+        System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+        return result;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH) {
+            return null;
+        }
+        if (bytes[0] != MAGIC || bytes[1] != schemaVersion) {
+            logger.debug("Skipping cache value with foreign header: magic {}, schema version {}", bytes[0], bytes[1]);
+            return null;
+        }
+
+        try {
+            if ((bytes[2] & FLAG_LZ4) != 0) {
+                int rawLength = ByteBuffer.wrap(bytes, HEADER_LENGTH, RAW_LENGTH_FIELD).getInt();
+                byte[] raw = new byte[rawLength];
+                decompressor.decompress(bytes, HEADER_LENGTH + RAW_LENGTH_FIELD, raw, 0, rawLength);
+                return reader.readValue(raw);
+            }
+            return reader.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Could not read cache value", e);
+        }
+    }
+
+    /**
+     * Compresses the payload, returning {@code null} when LZ4 does not make it smaller.
+     */
+    private byte[] compress(byte[] payload) {
+        int prefix = HEADER_LENGTH + RAW_LENGTH_FIELD;
+        byte[] buffer = new byte[prefix + compressor.maxCompressedLength(payload.length)];
+        int compressedLength = compressor.compress(payload, 0, payload.length, buffer, prefix);
+        if (compressedLength >= payload.length - RAW_LENGTH_FIELD) {
+            return null;
+        }
+
+        writeHeader(buffer, FLAG_LZ4);
+        ByteBuffer.wrap(buffer, HEADER_LENGTH, RAW_LENGTH_FIELD).putInt(payload.length);
+
+        byte[] result = new byte[prefix + compressedLength];
+        System.arraycopy(buffer, 0, result, 0, result.length);
+        return result;
+    }
+
+    private void writeHeader(byte[] target, byte flags) {
+        target[0] = MAGIC;
+        target[1] = schemaVersion;
+        target[2] = flags;
+    }
+}
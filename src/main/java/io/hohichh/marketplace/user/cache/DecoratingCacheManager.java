@@ -0,0 +1,57 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link CacheManager} that wraps the caches of another manager with decorators.
+ * <p>
+ * Decorated instances are created once per cache name, so decorator state
+ * (in-flight loads, frequency sketches) is shared by all callers of that cache.
+ */
+public class DecoratingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final UnaryOperator<Cache> decorator;
+    private final ConcurrentMap<String, Cache> decoratedCaches = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate  The manager whose caches are decorated.
+     * @param decorator Returns the decorated cache, or the given cache itself if it needs no decoration.
+     */
+    public DecoratingCacheManager(CacheManager delegate, UnaryOperator<Cache> decorator) {
+        this.delegate = delegate;
+        this.decorator = decorator;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache decorated = decoratedCaches.get(name);
+        if (decorated != null) {
+            return decorated;
+        }
+
+        Cache cache = delegate.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        return decoratedCaches.computeIfAbsent(name, n -> decorator.apply(cache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * @return The manager whose caches are decorated.
+     */
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+}
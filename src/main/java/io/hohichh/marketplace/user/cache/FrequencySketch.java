@@ -0,0 +1,111 @@
+package io.hohichh.marketplace.user.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch with 4-bit counters and periodic aging, as used by TinyLFU admission.
+ * <p>
+ * Each key is counted in four rows of {@code width} counters, and its estimated frequency is the smallest
+ * of the four. Counters saturate at 15. After {@code 10 * width} recorded accesses all counters are halved,
+ * so the estimate reflects recent popularity rather than all-time totals. Sixteen counters are packed
+ * into one {@code long}, so the sketch needs {@code width * 2} bytes for all four rows.
+ * <p>
+ * Updates are lock-free; concurrent increments racing with aging may be lost, which only makes the
+ * estimate slightly more conservative.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final AtomicLongArray table;
+    private final int widthMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param expectedKeys Roughly how many distinct keys compete for the cache; rounded up to a power of two.
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, expectedKeys - 1) << 1);
+        this.widthMask = width - 1;
+        this.sampleSize = 10 * width;
+        this.table = new AtomicLongArray(DEPTH * width / 16);
+    }
+
+    /**
+     * Records one access to the key.
+     *
+     * @param key The accessed key.
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            added |= incrementAt(indexOf(hash, row));
+        }
+
+        if (added && additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+    }
+
+    /**
+     * @param key The key to estimate.
+     * @return The estimated number of recent accesses, at most 15.
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, countAt(indexOf(hash, row)));
+        }
+        return frequency;
+    }
+
+    private boolean incrementAt(int counter) {
+        int slot = counter >>> 4;
+        int shift = (counter & 15) << 2;
+        while (true) {
+            long current = table.get(slot);
+            if (((current >>> shift) & 0xfL) == MAX_COUNT) {
+                return false;
+            }
+            if (table.compareAndSet(slot, current, current + (1L << shift))) {
+                return true;
+            }
+        }
+    }
+
+    private int countAt(int counter) {
+        int shift = (counter & 15) << 2;
+        return (int) ((table.get(counter >>> 4) >>> shift) & 0xfL);
+    }
+
+    private void age() {
+        // only the thread that observes the threshold halves the table
+        int seen = additions.get();
+        if (seen < sampleSize || !additions.compareAndSet(seen, seen / 2)) {
+            return;
+        }
+        for (int slot = 0; slot < table.length(); slot++) {
+            table.getAndUpdate(slot, value -> (value >>> 1) & RESET_MASK);
+        }
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (widthMask + 1) + ((int) h & widthMask);
+    }
+
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+}
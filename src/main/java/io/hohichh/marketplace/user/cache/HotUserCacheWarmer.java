@@ -0,0 +1,121 @@
+package io.hohichh.marketplace.user.cache;
+
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.mapper.UserMapper;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the most requested users into the {@code users} cache on startup.
+ * <p>
+ * Application runners complete before the application reports readiness, so a new node only
+ * receives traffic once its hottest entries are in place instead of sending every first request
+ * to the database. Users are loaded in batches with a single query each, several batches at a time.
+ * The warm-up is best-effort: failures are logged and startup continues after the configured timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "application.cache.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class HotUserCacheWarmer implements ApplicationRunner {
+
+    static final String CACHE_NAME = "users";
+
+    private static final Logger logger = LoggerFactory.getLogger(HotUserCacheWarmer.class);
+
+    private final HotUserTracker hotUserTracker;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final CacheManager cacheManager;
+    private final ApplicationCacheProperties.Warmup settings;
+
+    public HotUserCacheWarmer(HotUserTracker hotUserTracker,
+                              UserRepository userRepository,
+                              UserMapper userMapper,
+                              CacheManager cacheManager,
+                              ApplicationCacheProperties properties) {
+        this.hotUserTracker = hotUserTracker;
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.cacheManager = cacheManager;
+        this.settings = properties.warmup();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * @return The number of users put into the cache.
+     */
+    int warmUp() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            logger.debug("Cache {} is not available, skipping warm-up", CACHE_NAME);
+            return 0;
+        }
+
+        List<UUID> ids = hotUserTracker.topUserIds(settings.users());
+        if (ids.isEmpty()) {
+            logger.info("No hot users recorded yet, skipping cache warm-up");
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        AtomicInteger warmed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.parallelism());
+        try {
+            for (List<UUID> batch : partition(ids, settings.batchSize())) {
+                executor.execute(() -> warmed.addAndGet(loadBatch(cache, batch)));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(settings.timeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("Cache warm-up did not finish within {}, continuing startup", settings.timeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.info("Warmed {} of {} hot users in {} ms",
+                warmed.get(), ids.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return warmed.get();
+    }
+
+    private int loadBatch(Cache cache, List<UUID> batch) {
+        try {
+            List<User> users = userRepository.findAllWithCardsByIdIn(batch);
+            for (User user : users) {
+                cache.put(user.getId(), userMapper.toUserWithCardsDto(user));
+            }
+            return users.size();
+        } catch (RuntimeException e) {
+            logger.warn("Could not warm a batch of {} users: {}", batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private static List<List<UUID>> partition(List<UUID> ids, int batchSize) {
+        List<List<UUID>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            batches.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return batches;
+    }
+}
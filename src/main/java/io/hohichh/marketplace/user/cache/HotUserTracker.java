@@ -0,0 +1,125 @@
+package io.hohichh.marketplace.user.cache;
+
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a rolling ranking of the most requested user IDs in a Redis sorted set shared by all nodes.
+ * <p>
+ * Requests are counted in memory and added to the sorted set in one pipelined batch per flush interval,
+ * so recording an access never waits for Redis. The set is trimmed to the configured size on every flush,
+ * and all scores are periodically halved so that users who stopped being requested fall out of the ranking.
+ * Every node schedules the halving, but only the first node to run in a decay interval applies it.
+ */
+@Component
+public class HotUserTracker implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotUserTracker.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationCacheProperties.Warmup settings;
+    private final Clock clock;
+
+    private final AtomicReference<Map<UUID, LongAdder>> pendingCounts = new AtomicReference<>(new ConcurrentHashMap<>());
+
+    public HotUserTracker(StringRedisTemplate redisTemplate, ApplicationCacheProperties properties, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.settings = properties.warmup();
+        this.clock = clock;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::flush, settings.flushInterval());
+        registrar.addFixedDelayTask(this::decay, settings.decayInterval());
+    }
+
+    /**
+     * Counts one request for the given user.
+     *
+     * @param userId The requested user.
+     */
+    public void recordAccess(UUID userId) {
+        pendingCounts.get().computeIfAbsent(userId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * @param limit Maximum number of IDs to return.
+     * @return The most requested user IDs, most requested first; empty if Redis is unavailable.
+     */
+    public List<UUID> topUserIds(int limit) {
+        try {
+            Set<String> ids = redisTemplate.opsForZSet().reverseRange(settings.trackingKey(), 0, limit - 1L);
+            return ids == null ? List.of() : ids.stream().map(UUID::fromString).toList();
+        } catch (RuntimeException e) {
+            logger.warn("Could not read hot users from {}: {}", settings.trackingKey(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Adds the counts recorded since the previous flush to the shared ranking.
+     */
+    public void flush() {
+        Map<UUID, LongAdder> counts = pendingCounts.getAndSet(new ConcurrentHashMap<>());
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        String key = settings.trackingKey();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                counts.forEach((id, count) ->
+                        connection.zSetCommands().zIncrBy(rawKey, count.sum(), id.toString().getBytes(StandardCharsets.UTF_8)));
+                // keep only the top entries; ranks are ascending, so drop everything below the last kept one
+                connection.zSetCommands().zRemRange(rawKey, 0, -settings.trackedUsers() - 1L);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.debug("Could not flush {} hot user counts to {}: {}", counts.size(), key, e.getMessage());
+        }
+    }
+
+    /**
+     * Halves all scores of the shared ranking, unless another node already did so in the current decay interval.
+     * The interval is claimed with a marker key that outlives it, so each interval is applied at most once.
+     */
+    public void decay() {
+        String key = settings.trackingKey();
+        Duration interval = settings.decayInterval();
+        long period = clock.instant().toEpochMilli() / interval.toMillis();
+        try {
+            Boolean claimed = redisTemplate.opsForValue()
+                    .setIfAbsent(key + ":decayed:" + period, "1", interval.multipliedBy(2));
+            if (!Boolean.TRUE.equals(claimed)) {
+                logger.debug("Hot user counts in {} were already decayed in period {}", key, period);
+                return;
+            }
+            ZSetOperations<String, String> zSet = redisTemplate.opsForZSet();
+            zSet.unionAndStore(key, List.of(), key, Aggregate.SUM, Weights.of(0.5));
+        } catch (RuntimeException e) {
+            logger.debug("Could not decay hot user counts in {}: {}", key, e.getMessage());
+        }
+    }
+}
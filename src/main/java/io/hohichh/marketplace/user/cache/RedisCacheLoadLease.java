@@ -0,0 +1,59 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link CacheLoadLease} backed by a Redis key set with {@code SET NX PX}.
+ * <p>
+ * The key expires on its own, so a node that dies while loading blocks the others
+ * for at most the lease TTL. Release is a compare-and-delete, so a slow loader whose
+ * lease has already expired never removes a lease taken over by another node.
+ * If Redis is unavailable the lease is granted, falling back to per-node coalescing only.
+ */
+public class RedisCacheLoadLease implements CacheLoadLease {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheLoadLease.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+
+    public RedisCacheLoadLease(StringRedisTemplate redisTemplate, Duration leaseTtl) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+    }
+
+    @Override
+    public Handle tryAcquire(String cacheName, Object key) {
+        String leaseKey = "lease:" + cacheName + "::" + key;
+        String token = UUID.randomUUID().toString();
+
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTtl);
+            if (!Boolean.TRUE.equals(acquired)) {
+                return null;
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not acquire load lease {}, loading without it: {}", leaseKey, e.getMessage());
+            return () -> { };
+        }
+
+        return () -> {
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey), token);
+            } catch (RuntimeException e) {
+                logger.warn("Could not release load lease {}: {}", leaseKey, e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * {@link KeyGenerator} for caches of "today" results: the key is the current date of the
+ * injected {@link Clock}, so an entry can never be served on the wrong day.
+ */
+@Component("todayKeyGenerator")
+public class TodayKeyGenerator implements KeyGenerator {
+
+    private final Clock clock;
+
+    public TodayKeyGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * @param birthDate The birth date of a user.
+     * @return The keys of today and tomorrow whose list includes users born on that date, if any. Tomorrow's
+     *         entry only exists once it has been precomputed, shortly before midnight.
+     */
+    public List<LocalDate> keysListing(LocalDate birthDate) {
+        LocalDate today = LocalDate.now(clock);
+        MonthDay birthday = MonthDay.from(birthDate);
+        return Stream.of(today, today.plusDays(1))
+                .filter(day -> MonthDay.from(day).equals(birthday))
+                .toList();
+    }
+}
@@ -0,0 +1,91 @@
+package io.hohichh.marketplace.user.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Access to the {@code userCards} cache, which holds the cards of a user by user ID, beyond what
+ * {@code @Cacheable} offers: finding a single card in its owner's list and evicting by owner.
+ * <p>
+ * To find the list of a card, each node remembers the owners of the cards it has seen. A card never changes
+ * its owner and card ids are not reused, so these entries cannot go stale; the owner of a deleted card
+ * just has no such card in its list anymore.
+ */
+@Component
+public class UserCardsCache {
+
+    public static final String USER_CARDS_CACHE = "userCards";
+    private static final String USERS_CACHE = "users";
+
+    private final CacheManager cacheManager;
+    private final com.github.benmanes.caffeine.cache.Cache<UUID, UUID> owners;
+
+    public UserCardsCache(CacheManager cacheManager, ApplicationCacheProperties properties) {
+        this.cacheManager = cacheManager;
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(properties.cardOwnerIndexSize())
+                .build();
+    }
+
+    /**
+     * @param cardId The card to look up.
+     * @return The card, if its owner is known on this node and the owner's cards are cached.
+     */
+    public Optional<CardInfoDto> find(UUID cardId) {
+        UUID ownerId = owners.getIfPresent(cardId);
+        Cache cache = cacheManager.getCache(USER_CARDS_CACHE);
+        if (ownerId == null || cache == null) {
+            return Optional.empty();
+        }
+        List<?> cards = cache.get(ownerId, List.class);
+        if (cards == null) {
+            return Optional.empty();
+        }
+        return cards.stream()
+                .map(CardInfoDto.class::cast)
+                .filter(card -> card.id().equals(cardId))
+                .findFirst();
+    }
+
+    /**
+     * Caches all cards of a user.
+     */
+    public void put(UUID userId, List<CardInfoDto> cards) {
+        Cache cache = cacheManager.getCache(USER_CARDS_CACHE);
+        if (cache != null) {
+            cache.put(userId, cards);
+        }
+        rememberOwners(cards);
+    }
+
+    /**
+     * Remembers the owners of the given cards, so they can later be found in their owners' lists.
+     */
+    public void rememberOwners(List<CardInfoDto> cards) {
+        for (CardInfoDto card : cards) {
+            owners.put(card.id(), card.userId());
+        }
+    }
+
+    /**
+     * Evicts the cards and the {@code users} entry of a user once the current transaction commits.
+     * Evicting earlier would let a read in between put the old cards back until they expire.
+     */
+    public void evictOwner(UUID userId) {
+        for (String cacheName : List.of(USER_CARDS_CACHE, USERS_CACHE)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                new TransactionAwareCacheDecorator(cache).evict(userId);
+            }
+        }
+    }
+}
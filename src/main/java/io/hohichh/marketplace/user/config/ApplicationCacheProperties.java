@@ -0,0 +1,131 @@
+/*
+ * Author: Yelizaveta Verkovich aka Hohich
+ * Task: Bind the application-level settings of the Redis caches
+ */
+
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Application-level settings of the Redis caches, bound from {@code application.cache.*}.
+ *
+ * @param ttl        Per-cache time-to-live overrides; caches without an entry use {@code spring.cache.redis.time-to-live}.
+ * @param serializer Settings of the value serializer shared by all caches.
+ * @param stampede   Settings of load coalescing for {@code @Cacheable(sync = true)} caches.
+ * @param birthdayPrecompute Schedule of the nightly precomputation of the birthday list.
+ * @param warmup     Tracking of frequently requested users and warm-up of the {@code users} cache on startup.
+ * @param admission  Frequency-based admission for {@code @Cacheable(sync = true)} caches.
+ * @param invalidation Eviction of cache entries on row changes announced by the database.
+ * @param cardOwnerIndexSize How many card-to-owner entries each node keeps for serving single cards from {@code userCards}.
+ */
+@ConfigurationProperties(prefix = "application.cache")
+public record ApplicationCacheProperties(
+        @DefaultValue Map<String, Duration> ttl,
+        @DefaultValue Serializer serializer,
+        @DefaultValue Stampede stampede,
+        @DefaultValue BirthdayPrecompute birthdayPrecompute,
+        @DefaultValue Warmup warmup,
+        @DefaultValue Admission admission,
+        @DefaultValue Invalidation invalidation,
+        @DefaultValue("50000") int cardOwnerIndexSize) {
+
+    /**
+     * Value encoding used for cached DTOs.
+     */
+    public enum Format {
+        /** Versioned Jackson Smile, optionally LZ4-compressed. */
+        SMILE,
+        /** Plain JDK serialization, kept for rollbacks and comparison. */
+        JDK
+    }
+
+    /**
+     * @param format               Encoding of cache values.
+     * @param schemaVersion        Version written into every Smile value; bump it on incompatible DTO changes.
+     * @param compressionThreshold Values larger than this are LZ4-compressed; a negative size disables compression.
+     */
+    public record Serializer(
+            @DefaultValue("SMILE") Format format,
+            @DefaultValue("1") int schemaVersion,
+            @DefaultValue("512B") DataSize compressionThreshold) {
+    }
+
+    /**
+     * @param caches       Caches whose misses are loaded once per key and node.
+     * @param distributed  Whether loaders also take a Redis lease so only one node loads a key at a time.
+     * @param leaseTtl     Upper bound for holding a lease; should exceed the slowest expected load.
+     * @param leaseWait    How long a node without the lease waits for another node's result before loading itself.
+     * @param pollInterval How often a waiting node re-checks the cache.
+     */
+    public record Stampede(
+            @DefaultValue({"users", "usersWithBirthdayToday"}) Set<String> caches,
+            @DefaultValue("true") boolean distributed,
+            @DefaultValue("5s") Duration leaseTtl,
+            @DefaultValue("2s") Duration leaseWait,
+            @DefaultValue("25ms") Duration pollInterval) {
+    }
+
+    /**
+     * @param enabled Whether the list is precomputed; the endpoint falls back to on-demand loading otherwise.
+     * @param cron    When the next day's list is written, in the zone of the application clock.
+     */
+    public record BirthdayPrecompute(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0 55 23 * * *") String cron) {
+    }
+
+    /**
+     * @param enabled       Whether the {@code users} cache is warmed before the application reports readiness.
+     * @param trackingKey   Redis sorted set holding request counts per user ID, shared by all nodes.
+     * @param trackedUsers  How many of the most requested users the sorted set keeps.
+     * @param flushInterval How often locally buffered request counts are added to the sorted set.
+     * @param decayInterval How often all counts are halved, so the ranking follows recent traffic.
+     * @param users         How many of the top users are loaded on startup.
+     * @param batchSize     Users loaded with one query.
+     * @param parallelism   Batches loaded concurrently.
+     * @param timeout       Upper bound for the warm-up; startup continues with whatever has been loaded.
+     */
+    public record Warmup(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("hot-users") String trackingKey,
+            @DefaultValue("10000") int trackedUsers,
+            @DefaultValue("10s") Duration flushInterval,
+            @DefaultValue("1h") Duration decayInterval,
+            @DefaultValue("1000") int users,
+            @DefaultValue("100") int batchSize,
+            @DefaultValue("4") int parallelism,
+            @DefaultValue("30s") Duration timeout) {
+    }
+
+    /**
+     * @param caches       Caches that only store values of keys requested repeatedly.
+     * @param expectedKeys Roughly how many distinct keys compete for each of these caches; sizes the frequency sketch.
+     * @param minFrequency Recent requests of a key, including the current one, needed before its value is cached.
+     */
+    public record Admission(
+            @DefaultValue("users") Set<String> caches,
+            @DefaultValue("65536") int expectedKeys,
+            @DefaultValue("2") int minFrequency) {
+    }
+
+    /**
+     * @param enabled        Whether each node listens for row changes; requires the Liquibase-managed PostgreSQL schema.
+     * @param pollTimeout    How long the listener waits for notifications before checking its connection.
+     * @param reconnectDelay How long the listener waits before reconnecting after losing its connection.
+     * @param claimTtl       How long the node evicting the Redis entries of a change made outside the application
+     *                       keeps its claim; must exceed the delay between the nodes receiving the same notification.
+     */
+    public record Invalidation(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("10s") Duration pollTimeout,
+            @DefaultValue("5s") Duration reconnectDelay,
+            @DefaultValue("1m") Duration claimTtl) {
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Author: Yelizaveta Verkovich aka Hohich
+ * Task: Configure serialization and time-to-live of the Redis caches
+ */
+
+package io.hohichh.marketplace.user.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.hohichh.marketplace.user.cache.AdmissionCache;
+import io.hohichh.marketplace.user.cache.CacheLoadLease;
+import io.hohichh.marketplace.user.cache.CoalescingCache;
+import io.hohichh.marketplace.user.cache.CompactRedisSerializer;
+import io.hohichh.marketplace.user.cache.DecoratingCacheManager;
+import io.hohichh.marketplace.user.cache.FrequencySketch;
+import io.hohichh.marketplace.user.cache.RedisCacheLoadLease;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configures value serialization and time-to-live of the Redis-backed caches.
+ * <p>
+ * Every cache is registered with the exact type it holds, so values are written without
+ * embedded class names. The defaults built by Spring Boot from {@code spring.cache.redis.*}
+ * (key prefix, default TTL) are kept and only refined per cache.
+ * <p>
+ * The Redis cache manager is then wrapped so that caches listed under
+ * {@code application.cache.stampede.caches} coalesce concurrent loads of the same key,
+ * and caches listed under {@code application.cache.admission.caches} only store keys requested repeatedly.
+ */
+@Configuration
+@EnableConfigurationProperties(ApplicationCacheProperties.class)
+public class CacheConfig {
+
+    private static final TypeFactory TYPES = TypeFactory.defaultInstance();
+
+    /**
+     * Value types of the caches used by the service layer.
+     */
+    static final Map<String, JavaType> CACHE_VALUE_TYPES = Map.of(
+            "users", TYPES.constructType(UserWithCardsDto.class),
+            "usersWithBirthdayToday", TYPES.constructCollectionType(List.class, UserDto.class),
+            "expiredCards", TYPES.constructCollectionType(List.class, CardInfoDto.class),
+            "userCards", TYPES.constructCollectionType(List.class, CardInfoDto.class)
+    );
+
+    @Bean
+    public RedisCacheManagerBuilderCustomizer typedRedisCachesCustomizer(ApplicationCacheProperties properties) {
+        ObjectMapper smileMapper = smileObjectMapper();
+
+        return builder -> {
+            RedisCacheConfiguration defaults = builder.cacheDefaults();
+
+            Map<String, RedisCacheConfiguration> configurations = new LinkedHashMap<>();
+            CACHE_VALUE_TYPES.forEach((cacheName, type) -> {
+                RedisCacheConfiguration configuration = defaults
+                        .disableCachingNullValues()
+                        .serializeValuesWith(SerializationPair.fromSerializer(
+                                valueSerializer(smileMapper, type, properties.serializer())));
+
+                Duration ttl = properties.ttl().get(cacheName);
+                if (ttl != null) {
+                    configuration = configuration.entryTtl(ttl);
+                }
+                configurations.put(cacheName, configuration);
+            });
+
+            builder.withInitialCacheConfigurations(configurations);
+        };
+    }
+
+    /**
+     * Decorates the auto-configured {@link RedisCacheManager}. Declared static so the post-processor
+     * does not pull this configuration class into early initialization.
+     */
+    @Bean
+    public static BeanPostProcessor cacheDecoratingPostProcessor(
+            ObjectProvider<ApplicationCacheProperties> properties,
+            ObjectProvider<StringRedisTemplate> redisTemplate) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof RedisCacheManager redisCacheManager)) {
+                    return bean;
+                }
+
+                ApplicationCacheProperties settings = properties.getObject();
+                ApplicationCacheProperties.Stampede stampede = settings.stampede();
+                CacheLoadLease lease = stampede.distributed()
+                        ? new RedisCacheLoadLease(redisTemplate.getObject(), stampede.leaseTtl())
+                        : CacheLoadLease.LOCAL;
+
+                return new DecoratingCacheManager(redisCacheManager,
+                        cache -> decorate(cache, stampede, lease, settings.admission()));
+            }
+        };
+    }
+
+    private static Cache decorate(Cache cache,
+                                  ApplicationCacheProperties.Stampede stampede,
+                                  CacheLoadLease lease,
+                                  ApplicationCacheProperties.Admission admission) {
+        Cache decorated = cache;
+        if (stampede.caches().contains(cache.getName())) {
+            decorated = new CoalescingCache(decorated, lease, stampede.leaseWait(), stampede.pollInterval());
+        }
+        // admission sits in front, so rejected loads are neither coalesced nor written
+        if (admission.caches().contains(cache.getName())) {
+            decorated = new AdmissionCache(decorated,
+                    new FrequencySketch(admission.expectedKeys()), admission.minFrequency());
+        }
+        return decorated;
+    }
+
+    static ObjectMapper smileObjectMapper() {
+        return new ObjectMapper(new SmileFactory())
+                .registerModule(new JavaTimeModule());
+    }
+
+    static RedisSerializer<?> valueSerializer(ObjectMapper smileMapper,
+                                              JavaType type,
+                                              ApplicationCacheProperties.Serializer settings) {
+        return switch (settings.format()) {
+            case SMILE -> new CompactRedisSerializer<>(
+                    smileMapper,
+                    type,
+                    settings.schemaVersion(),
+                    (int) settings.compressionThreshold().toBytes());
+            case JDK -> new JdkSerializationRedisSerializer();
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package io.hohichh.marketplace.user.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.hohichh.marketplace.user.cache.CacheInvalidationNode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Names the pooled database connections after this node, so the cache invalidation triggers can tell
+ * which node made a change; see {@link CacheInvalidationNode}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationConfig {
+
+    private static final String APPLICATION_NAME_PROPERTY = "ApplicationName";
+
+    /**
+     * Declared static so the post-processor does not pull this configuration class into early initialization.
+     * The pool opens its connections lazily, so setting the property before initialization covers all of them.
+     */
+    @Bean
+    public static BeanPostProcessor applicationNameDataSourcePostProcessor(ObjectProvider<CacheInvalidationNode> node) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.addDataSourceProperty(APPLICATION_NAME_PROPERTY, node.getObject().name());
+                }
+                return bean;
+            }
+        };
+    }
+}
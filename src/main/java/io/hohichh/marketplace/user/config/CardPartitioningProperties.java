@@ -0,0 +1,24 @@
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Maintenance settings of the yearly {@code card_info} partitions, bound from {@code application.partitioning.card-info.*}.
+ *
+ * @param enabled          Whether partitions are maintained by the application; requires the Liquibase-managed PostgreSQL schema.
+ * @param cron             When maintenance runs, in the zone of the application clock.
+ * @param yearsAhead       How many years after the current one must have a partition.
+ * @param detachExpired    Whether partitions whose cards have all expired are detached from {@code card_info}.
+ * @param retentionYears   How many full years after expiry a partition stays attached.
+ * @param dropDetached     Whether detached partitions are dropped instead of kept as {@code card_info_archive_y<year>} tables.
+ */
+@ConfigurationProperties(prefix = "application.partitioning.card-info")
+public record CardPartitioningProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0 0 3 1 * *") String cron,
+        @DefaultValue("10") int yearsAhead,
+        @DefaultValue("false") boolean detachExpired,
+        @DefaultValue("1") int retentionYears,
+        @DefaultValue("false") boolean dropDetached) {
+}
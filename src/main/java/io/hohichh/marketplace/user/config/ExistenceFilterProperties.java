@@ -0,0 +1,27 @@
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the in-memory existence filters for user emails and card numbers,
+ * bound from {@code application.existence-filter.*}.
+ *
+ * @param enabled              Whether the filters are built; when disabled every uniqueness check queries the database.
+ * @param cron                 When the filters are rebuilt from the database, in the zone of the application clock.
+ * @param expectedEmails       The minimum number of emails the email filter is sized for.
+ * @param expectedCardNumbers  The minimum number of card numbers the card filter is sized for.
+ * @param falsePositiveRate    The false-positive rate of a filter filled up to its size.
+ * @param growthFactor         How many times the current row count a rebuilt filter is sized for, leaving room for inserts until the next rebuild.
+ * @param fetchSize            The JDBC fetch size used while streaming a column.
+ */
+@ConfigurationProperties(prefix = "application.existence-filter")
+public record ExistenceFilterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0 30 4 * * *") String cron,
+        @DefaultValue("1000000") long expectedEmails,
+        @DefaultValue("2000000") long expectedCardNumbers,
+        @DefaultValue("0.01") double falsePositiveRate,
+        @DefaultValue("2") double growthFactor,
+        @DefaultValue("10000") int fetchSize) {
+}
@@ -0,0 +1,20 @@
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the internal gRPC server, bound from {@code application.grpc.*}.
+ *
+ * @param enabled       Whether the gRPC server is started next to the HTTP server.
+ * @param port          The port the gRPC server listens on; kept apart from the public HTTP port.
+ * @param shutdownGrace How long in-flight calls may run after shutdown has started.
+ */
+@ConfigurationProperties(prefix = "application.grpc")
+public record GrpcServerProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("9090") int port,
+        @DefaultValue("10s") Duration shutdownGrace) {
+}
@@ -0,0 +1,32 @@
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Handling of the {@code Idempotency-Key} request header, bound from {@code application.idempotency.*}.
+ *
+ * @param enabled      Whether the header is honoured.
+ * @param paths        Path patterns within the application of the {@code POST} endpoints that accept the header.
+ * @param ttl          How long the first response is kept and replayed to retries.
+ * @param pendingTtl   Upper bound for a request in progress to hold its key; should exceed the slowest expected request.
+ * @param waitTimeout  How long a concurrent duplicate waits for the original before it is answered with 409.
+ * @param pollInterval How often a waiting duplicate checks whether the original has completed.
+ * @param keyPrefix    Prefix of the stored responses in Redis.
+ * @param maxBodySize  Largest request body the filter buffers to fingerprint it; larger requests are rejected with 413.
+ */
+@ConfigurationProperties(prefix = "application.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue({"/v1/registration/users", "/v1/users", "/v1/users/{userId}/cards"}) List<String> paths,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("30s") Duration pendingTtl,
+        @DefaultValue("5s") Duration waitTimeout,
+        @DefaultValue("25ms") Duration pollInterval,
+        @DefaultValue("idempotency:") String keyPrefix,
+        @DefaultValue("1MB") DataSize maxBodySize) {
+}
@@ -0,0 +1,96 @@
+package io.hohichh.marketplace.user.config;
+
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.dto.registration.AuthServiceResponse;
+import io.hohichh.marketplace.user.dto.registration.UserCredsDto;
+import io.hohichh.marketplace.user.idempotency.StoredResponse;
+import io.hohichh.marketplace.user.model.CardInfo;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.model.UuidV7Generator;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Reflection, proxy and resource hints for the GraalVM native image ({@code ./mvnw -Pnative package}).
+ * <p>
+ * Spring AOT already covers the beans themselves; these hints cover what is looked up by name or
+ * serialized reflectively at runtime: the JJWT implementation classes the API loads by name, the
+ * Feign client proxy and its payloads, the JDBC proxies of the statement metrics, the MapStruct implementations, the JPA entities and their id
+ * generator, the DTOs written to Redis and the Liquibase changelogs.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    /** Loaded by name from {@code jjwt-api} through {@code io.jsonwebtoken.lang.Classes}. */
+    static final List<String> JJWT_IMPLEMENTATION_CLASSES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer");
+
+    static final List<String> MAPPER_IMPLEMENTATION_CLASSES = List.of(
+            "io.hohichh.marketplace.user.mapper.UserMapperImpl",
+            "io.hohichh.marketplace.user.mapper.CardInfoMapperImpl");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : JJWT_IMPLEMENTATION_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        for (String className : MAPPER_IMPLEMENTATION_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.proxies().registerJdkProxy(AuthServiceClient.class);
+        // created by datasource-proxy around every connection and statement, see StatementCountingDataSource
+        for (Class<?> jdbcType : List.of(Connection.class, Statement.class, PreparedStatement.class,
+                CallableStatement.class)) {
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+        }
+
+        for (Class<?> entity : List.of(User.class, CardInfo.class)) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.reflection().registerType(UuidV7Generator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+        BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+        bindingHints.registerReflectionHints(hints.reflection(),
+                UserCredsDto.class, AuthServiceResponse.class,
+                UserDto.class, UserWithCardsDto.class, CardInfoDto.class,
+                StoredResponse.class);
+
+        hints.resources().registerPattern("db/changelog/*.xml");
+        hints.resources().registerPattern("db/changelog/changes/*.xml");
+    }
+}
@@ -0,0 +1,50 @@
+package io.hohichh.marketplace.user.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.security.LocalRateLimiter;
+import io.hohichh.marketplace.user.security.RateLimitFilter;
+import io.hohichh.marketplace.user.security.RateLimiter;
+import io.hohichh.marketplace.user.security.RedisRateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Creates the per-principal rate limiter selected by {@code application.rate-limit.backend}.
+ * The filter itself is placed in the security filter chain by {@link SecurityConfig}.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties,
+                                   ObjectProvider<StringRedisTemplate> redisTemplate) {
+        LocalRateLimiter local = new LocalRateLimiter(properties.stripes());
+        return switch (properties.backend()) {
+            case LOCAL -> local;
+            case REDIS -> new RedisRateLimiter(redisTemplate.getObject(), properties.redisKeyPrefix(), local);
+        };
+    }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties,
+                                           RateLimiter rateLimiter,
+                                           ObjectMapper objectMapper) {
+        return new RateLimitFilter(properties, rateLimiter, objectMapper);
+    }
+
+    /**
+     * Keeps the servlet container from running the filter on its own, outside the security filter chain
+     * and before the principal is known.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
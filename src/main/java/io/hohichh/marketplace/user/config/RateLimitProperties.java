@@ -0,0 +1,90 @@
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-principal request limits, bound from {@code application.rate-limit.*}.
+ * <p>
+ * Every authenticated request draws from one token bucket of its principal: the bucket of the first
+ * matching entry of {@code endpoints}, otherwise the bucket of the principal's role, otherwise the default one.
+ *
+ * @param enabled      Whether requests are limited at all.
+ * @param backend      Where the buckets are kept.
+ * @param stripes      Number of independently swept segments of the in-memory bucket store.
+ * @param redisKeyPrefix Prefix of the bucket keys in Redis.
+ * @param defaultLimit Limit of principals whose role has no entry in {@code roles}.
+ * @param roles        Limits by role name without the {@code ROLE_} prefix, such as {@code USER} or {@code ADMIN}.
+ * @param endpoints    Limits of individual endpoints, checked in order.
+ */
+@ConfigurationProperties(prefix = "application.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("LOCAL") Backend backend,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("rate-limit:") String redisKeyPrefix,
+        @DefaultValue Limit defaultLimit,
+        @DefaultValue Map<String, Limit> roles,
+        @DefaultValue List<Endpoint> endpoints) {
+
+    /**
+     * Store of the token buckets.
+     */
+    public enum Backend {
+        /** Buckets in the memory of each node; a client spread over n nodes gets up to n times the limit. */
+        LOCAL,
+        /** Buckets in Redis, shared by all nodes; falls back to the in-memory store while Redis is unavailable. */
+        REDIS
+    }
+
+    /**
+     * A token bucket: holds up to {@code capacity} requests and refills completely over {@code refillPeriod}.
+     *
+     * @param capacity     The largest burst of requests.
+     * @param refillPeriod How long an empty bucket takes to fill up again.
+     */
+    public record Limit(
+            @DefaultValue("100") int capacity,
+            @DefaultValue("1s") Duration refillPeriod) {
+
+        /**
+         * @return The time it takes to earn one request back.
+         */
+        public long emissionIntervalNanos() {
+            return Math.max(1, refillPeriod.toNanos() / capacity);
+        }
+
+        /**
+         * @return The time worth of requests the bucket holds when full.
+         */
+        public long burstNanos() {
+            return emissionIntervalNanos() * capacity;
+        }
+    }
+
+    /**
+     * @param name         Identifies the bucket; principals get one bucket per endpoint entry.
+     * @param method       HTTP method the entry applies to, or any method if empty.
+     * @param path         Path pattern within the application, such as {@code /v1/users/{id}}.
+     * @param roles        Roles the entry applies to, or every role if empty.
+     * @param capacity     The largest burst of requests.
+     * @param refillPeriod How long an empty bucket takes to fill up again.
+     */
+    public record Endpoint(
+            String name,
+            String method,
+            String path,
+            @DefaultValue Set<String> roles,
+            @DefaultValue("100") int capacity,
+            @DefaultValue("1s") Duration refillPeriod) {
+
+        public Limit limit() {
+            return new Limit(capacity, refillPeriod);
+        }
+    }
+}
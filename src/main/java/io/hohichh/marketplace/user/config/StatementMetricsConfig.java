@@ -0,0 +1,48 @@
+package io.hohichh.marketplace.user.config;
+
+import io.hohichh.marketplace.user.jdbc.StatementCountingDataSource;
+import io.hohichh.marketplace.user.jdbc.StatementMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the data source in a {@link StatementCountingDataSource} that reports every executed statement to the open
+ * {@link io.hohichh.marketplace.user.jdbc.StatementScope}s of its thread, and opens one scope per HTTP request.
+ * <p>
+ * Every JDBC call then goes through a JDK proxy, which costs well under a microsecond per call;
+ * {@code application.statement-metrics.enabled=false} removes the proxy altogether.
+ */
+@Configuration
+@EnableConfigurationProperties(StatementMetricsProperties.class)
+@ConditionalOnProperty(prefix = "application.statement-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class StatementMetricsConfig {
+
+    /**
+     * Declared static so the post-processor does not pull this configuration class into early initialization.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return new StatementCountingDataSource(beanName, dataSource);
+            }
+        };
+    }
+
+    @Bean
+    public StatementMetricsFilter statementMetricsFilter(MeterRegistry meterRegistry,
+                                                         StatementMetricsProperties properties) {
+        return new StatementMetricsFilter(meterRegistry, properties);
+    }
+}
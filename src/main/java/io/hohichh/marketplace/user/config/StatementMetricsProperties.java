@@ -0,0 +1,19 @@
+package io.hohichh.marketplace.user.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the per-request statement metrics, bound from {@code application.statement-metrics.*}.
+ *
+ * @param enabled        Whether the data source is wrapped and the statements of each request are counted.
+ * @param responseHeader Whether responses report their statements in a {@code Server-Timing} header; meant for debugging,
+ *                       as it tells clients how the service stores its data.
+ * @param warnThreshold  Requests with more statements than this are logged as warnings.
+ */
+@ConfigurationProperties(prefix = "application.statement-metrics")
+public record StatementMetricsProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("false") boolean responseHeader,
+        @DefaultValue("20") int warnThreshold) {
+}
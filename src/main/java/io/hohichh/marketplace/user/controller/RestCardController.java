@@ -2,6 +2,8 @@ package io.hohichh.marketplace.user.controller;
 
 import io.hohichh.marketplace.user.dto.CardInfoDto;
 import io.hohichh.marketplace.user.dto.NewCardInfoDto;
+import io.hohichh.marketplace.user.logging.LogSampling;
+import io.hohichh.marketplace.user.service.ETags;
 import io.hohichh.marketplace.user.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -81,7 +83,7 @@ public class RestCardController {
 
         CardInfoDto card = userService.getCardById(cardId);
 
-        logger.info("Card with id: {} retrieved successfully", cardId);
+        logger.info(LogSampling.SAMPLED, "Card with id: {} retrieved successfully", cardId);
         return ResponseEntity.ok(card);
     }
 
@@ -100,7 +102,7 @@ public class RestCardController {
 
         logger.debug("Search for card with number: {} {}", cardNumber,
                 cardOpt.isPresent() ? "succeeded" : "failed - no cards with such number");
-        logger.info("Get card by number request processed successfully");
+        logger.info(LogSampling.SAMPLED, "Get card by number request processed successfully");
         return cardOpt.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -108,6 +110,8 @@ public class RestCardController {
 
     /**
      * Retrieves all payment cards associated with a specific user.
+     * The response carries a content-based ETag; a matching {@code If-None-Match} header
+     * yields HTTP status 304 (Not Modified) without a body.
      *
      * @param userId The UUID of the user whose cards are to be retrieved.
      * @return ResponseEntity containing a List of CardInfoDto and HTTP status 200 (OK).
@@ -118,8 +122,10 @@ public class RestCardController {
 
         List<CardInfoDto> cards = userService.getCardsByUserId(userId);
 
-        logger.info("Retrieved {} cards for user with id: {}", cards.size(), userId);
-        return ResponseEntity.ok(cards);
+        logger.info(LogSampling.SAMPLED, "Retrieved {} cards for user with id: {}", cards.size(), userId);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(cards))
+                .body(cards);
     }
 
 
@@ -134,7 +140,7 @@ public class RestCardController {
 
         List<CardInfoDto> cards = userService.getExpiredCards();
 
-        logger.info("Found {} expired cards", cards.size());
+        logger.info(LogSampling.SAMPLED, "Found {} expired cards", cards.size());
         return ResponseEntity.ok(cards);
     }
 }
@@ -5,17 +5,26 @@
  */
 package io.hohichh.marketplace.user.controller;
 
+import io.hohichh.marketplace.user.cache.HotUserTracker;
 import io.hohichh.marketplace.user.dto.*;
 import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.hohichh.marketplace.user.logging.LogSampling;
+import io.hohichh.marketplace.user.service.ETags;
+import io.hohichh.marketplace.user.service.UserChangeFeedService;
+import io.hohichh.marketplace.user.service.UserExportFormat;
+import io.hohichh.marketplace.user.service.UserExportService;
 import io.hohichh.marketplace.user.service.UserService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,15 +40,27 @@ import java.util.UUID;
 public class RestUserController {
 
     private final UserService userService;
+    private final HotUserTracker hotUserTracker;
+    private final UserExportService userExportService;
+    private final UserChangeFeedService userChangeFeedService;
     private static final Logger logger = LoggerFactory.getLogger(RestUserController.class);
 
     /**
      * Constructs a new RestUserController with the necessary UserService.
      *
      * @param userService The service layer responsible for user and card business logic.
+     * @param hotUserTracker Ranking of the most requested users, used to warm the cache on startup.
+     * @param userExportService The service streaming the bulk export of users.
+     * @param userChangeFeedService The service listing user changes for downstream mirrors.
      */
-    public RestUserController(UserService userService){
+    public RestUserController(UserService userService,
+                              HotUserTracker hotUserTracker,
+                              UserExportService userExportService,
+                              UserChangeFeedService userChangeFeedService){
         this.userService = userService;
+        this.hotUserTracker = hotUserTracker;
+        this.userExportService = userExportService;
+        this.userChangeFeedService = userChangeFeedService;
 
         logger.trace("RestUserController initialized successfully: userService has been injected");
     }
@@ -75,13 +96,17 @@ public class RestUserController {
      *
      * @param id The UUID of the user to update.
      * @param userDto DTO containing the updated user information. Must be valid.
+     * @param ifMatch Optional ETag of the representation the update is based on;
+     *                the update fails with HTTP status 412 (Precondition Failed) if the user has changed since.
      * @return ResponseEntity containing the updated UserDto and HTTP status 200 (OK).
      */
     @PutMapping("/users/{id}")
-    public ResponseEntity<UserDto> updateUser(@PathVariable UUID id, @Valid @RequestBody NewUserDto userDto) {
+    public ResponseEntity<UserDto> updateUser(@PathVariable UUID id,
+                                              @Valid @RequestBody NewUserDto userDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         logger.debug("Received request to update user with id: {}", id);
 
-        UserDto updatedUser = userService.updateUser(id, userDto);
+        UserDto updatedUser = userService.updateUser(id, userDto, ifMatch);
 
         logger.info("User with id: {} updated successfully", id);
         return ResponseEntity.ok(updatedUser);
@@ -107,6 +132,8 @@ public class RestUserController {
 
     /**
      * Retrieves a specific user by their ID, including their associated card information.
+     * The response carries a content-based ETag; a matching {@code If-None-Match} header
+     * yields HTTP status 304 (Not Modified) without a body.
      *
      * @param id The UUID of the user to retrieve.
      * @return ResponseEntity containing the UserWithCardsDto and HTTP status 200 (OK).
@@ -116,9 +143,31 @@ public class RestUserController {
         logger.debug("Received request to get user with id: {}", id);
 
         UserWithCardsDto user = userService.getUserById(id);
+        hotUserTracker.recordAccess(id);
 
-        logger.info("User with id: {} retrieved successfully", id);
-        return ResponseEntity.ok(user);
+        logger.info(LogSampling.SAMPLED, "User with id: {} retrieved successfully", id);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(user))
+                .body(user);
+    }
+
+
+    /**
+     * Retrieves several users by their IDs, including their card information, in one request.
+     * IDs without a matching user are omitted from the result; the order of the remaining ones is kept.
+     *
+     * @param request DTO containing the UUIDs of the users to retrieve. Must be valid.
+     * @return ResponseEntity containing the List of UserWithCardsDto and HTTP status 200 (OK).
+     */
+    @PostMapping("/users:lookup")
+    public ResponseEntity<List<UserWithCardsDto>> lookupUsers(@Valid @RequestBody UserLookupRequest request) {
+        logger.debug("Received request to look up {} users", request.ids().size());
+
+        List<UserWithCardsDto> users = userService.getUsersByIds(request.ids());
+        users.forEach(user -> hotUserTracker.recordAccess(user.id()));
+
+        logger.info(LogSampling.SAMPLED, "Looked up {} of {} requested users", users.size(), request.ids().size());
+        return ResponseEntity.ok(users);
     }
 
 
@@ -138,7 +187,7 @@ public class RestUserController {
         logger.debug(
                 (userOpt.isPresent()? "Retrieve user with email: {} successfully"
                         : "No such user with email: {}"), email);
-        logger.info("Get user by email request processed successfully");
+        logger.info(LogSampling.SAMPLED, "Get user by email request processed successfully");
         return userOpt.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -164,19 +213,68 @@ public class RestUserController {
             Page<UserDto> users = userService.getUsersBySearchTerm(searchTerm, pageable);
 
             logger.debug("Search for users with term: {} returned {} results", searchTerm, users.getTotalElements());
-            logger.info("Get users by search request processed successfully");
+            logger.info(LogSampling.SAMPLED, "Get users by search request processed successfully");
             return ResponseEntity.ok(users);
         } else {
 
             Page<UserDto> users = userService.getAllUsers(pageable);
 
             logger.debug("Retrieved all users, total count: {}", users.getTotalElements());
-            logger.info("Get all users request processed successfully");
+            logger.info(LogSampling.SAMPLED, "Get all users request processed successfully");
             return ResponseEntity.ok(users);
         }
     }
 
 
+    /**
+     * Streams all users with their cards as a gzip-compressed file.
+     * The export is read through a database cursor and written while it is read,
+     * so its size is not limited by the application's memory.
+     *
+     * @param format Output format, NDJSON (default) or CSV.
+     * @return ResponseEntity with the streaming export body and HTTP status 200 (OK).
+     */
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(name = "format", defaultValue = "NDJSON") UserExportFormat format) {
+        logger.debug("Received request to export users as {}", format);
+
+        StreamingResponseBody body = userExportService.exportUsers(format);
+
+        logger.info("Users export as {} started", format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + format.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+
+    /**
+     * Retrieves the users created, updated or deleted after a cursor, oldest change first.
+     * Pass the returned nextCursor to get the following page; it is also returned when nothing changed,
+     * so it can be polled.
+     *
+     * @param cursor The nextCursor of the previous page; omit it to read the feed from the beginning.
+     * @param limit The maximum number of changes to return (default 100, at most 1000).
+     * @return ResponseEntity containing the changes and the cursor to continue from, and HTTP status 200 (OK).
+     */
+    @GetMapping("/users/changes")
+    public ResponseEntity<UserChangesDto> getUserChanges(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        logger.debug("Received request to get user changes after cursor: {}", cursor);
+
+        UserChangesDto changes = userChangeFeedService.getChanges(cursor, limit);
+
+        logger.info(LogSampling.SAMPLED, "Returned {} user changes", changes.changes().size());
+        return ResponseEntity.ok(changes);
+    }
+
+
     /**
      * Retrieves a list of all users who have their birthday today.
      *
@@ -188,7 +286,7 @@ public class RestUserController {
 
         List<UserDto> users = userService.getUsersWithBirthdayToday();
 
-        logger.info("Found {} users with birthdays today", users.size());
+        logger.info(LogSampling.SAMPLED, "Found {} users with birthdays today", users.size());
         return ResponseEntity.ok(users);
     }
 
@@ -0,0 +1,16 @@
+package io.hohichh.marketplace.user.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One entry of the user change feed: the current state of a created or updated user,
+ * or a tombstone without {@code user} for a deleted one.
+ */
+public record UserChangeDto(
+        UUID id,
+        boolean deleted,
+        Instant changedAt,
+        UserDto user) implements Serializable {
+}
@@ -0,0 +1,14 @@
+package io.hohichh.marketplace.user.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A page of the user change feed. Pass {@code nextCursor} to the next request to continue after
+ * the last change; while {@code hasMore} is {@code false} the mirror is up to date.
+ */
+public record UserChangesDto(
+        List<UserChangeDto> changes,
+        String nextCursor,
+        boolean hasMore) implements Serializable {
+}
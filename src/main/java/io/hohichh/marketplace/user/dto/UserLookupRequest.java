@@ -0,0 +1,15 @@
+package io.hohichh.marketplace.user.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+public record UserLookupRequest(
+        @NotEmpty
+        @Size(max = 500)
+        List<@NotNull UUID> ids) implements Serializable {
+}
@@ -0,0 +1,60 @@
+/*
+ * Author: Yelizaveta Verkovich aka Hohich
+ * Task: Define a cheap base class for the expected, client-caused domain errors
+ */
+
+package io.hohichh.marketplace.user.exception;
+
+/**
+ * Base class of the domain exceptions that describe an expected outcome of a request,
+ * such as a missing resource or a conflicting update, rather than a fault of the service.
+ * <p>
+ * These exceptions are thrown at high rates when clients probe for unknown ids, so they are made cheap:
+ * no stack trace is captured, suppression is disabled, and the message is only formatted from its
+ * template when {@link #getMessage()} is first called.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private final String template;
+    private final Object[] args;
+    private String message;
+
+    /**
+     * @param template The message, in which each {@code %s} is replaced by the next argument.
+     * @param args     The values for the placeholders of the template.
+     */
+    protected DomainException(String template, Object... args) {
+        super(null, null, false, false);
+        this.template = template;
+        this.args = args;
+    }
+
+    @Override
+    public String getMessage() {
+        String formatted = message;
+        if (formatted == null) {
+            formatted = format(template, args);
+            message = formatted;
+        }
+        return formatted;
+    }
+
+    /**
+     * Replaces each {@code %s} in the template with the next argument. Produces the same text as
+     * {@link String#format} for such templates without the cost of parsing a general format string.
+     */
+    static String format(String template, Object... args) {
+        if (template == null || args == null || args.length == 0) {
+            return template;
+        }
+        StringBuilder builder = new StringBuilder(template.length() + 16 * args.length);
+        int start = 0;
+        int argument = 0;
+        int placeholder;
+        while (argument < args.length && (placeholder = template.indexOf("%s", start)) >= 0) {
+            builder.append(template, start, placeholder).append(args[argument++]);
+            start = placeholder + 2;
+        }
+        return builder.append(template, start, template.length()).toString();
+    }
+}
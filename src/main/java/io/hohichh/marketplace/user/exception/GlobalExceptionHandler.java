@@ -1,13 +1,16 @@
 package io.hohichh.marketplace.user.exception;
 
 import feign.FeignException;
+import io.hohichh.marketplace.user.logging.LogRateLimiter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -17,6 +20,8 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +30,36 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    // client errors arrive in floods when ids are probed; a few lines per second are enough to see them
+    private static final int CLIENT_ERROR_LOG_PERMITS = 10;
+    private static final Duration CLIENT_ERROR_LOG_WINDOW = Duration.ofSeconds(1);
+
+    // SQLState of unique_violation
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    private static final ProblemTemplate BAD_REQUEST = new ProblemTemplate(HttpStatus.BAD_REQUEST, "Bad Request");
+    private static final ProblemTemplate NOT_FOUND = new ProblemTemplate(HttpStatus.NOT_FOUND, "Resource Not Found");
+    private static final ProblemTemplate CONFLICT = new ProblemTemplate(HttpStatus.CONFLICT, "Resource Conflict");
+    private static final ProblemTemplate PRECONDITION_FAILED =
+            new ProblemTemplate(HttpStatus.PRECONDITION_FAILED, "Precondition Failed");
+    private static final ProblemTemplate ACCESS_DENIED = new ProblemTemplate(HttpStatus.FORBIDDEN, "Access Denied");
+
+    private static final String PRECONDITION_FAILED_DETAIL =
+            "The resource was modified by another request. Fetch the current version and retry.";
+    private static final String CONSTRAINT_VIOLATION_DETAIL = "The request conflicts with existing data.";
+    private static final String ACCESS_DENIED_DETAIL = "You do not have permission to perform this action.";
+
+    private final LogRateLimiter badRequestLogLimiter =
+            new LogRateLimiter(CLIENT_ERROR_LOG_PERMITS, CLIENT_ERROR_LOG_WINDOW);
+    private final LogRateLimiter notFoundLogLimiter =
+            new LogRateLimiter(CLIENT_ERROR_LOG_PERMITS, CLIENT_ERROR_LOG_WINDOW);
+    private final LogRateLimiter conflictLogLimiter =
+            new LogRateLimiter(CLIENT_ERROR_LOG_PERMITS, CLIENT_ERROR_LOG_WINDOW);
+    private final LogRateLimiter preconditionLogLimiter =
+            new LogRateLimiter(CLIENT_ERROR_LOG_PERMITS, CLIENT_ERROR_LOG_WINDOW);
+    private final LogRateLimiter accessDeniedLogLimiter =
+            new LogRateLimiter(CLIENT_ERROR_LOG_PERMITS, CLIENT_ERROR_LOG_WINDOW);
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
@@ -65,28 +100,64 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_GATEWAY, "External service error");
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ProblemDetail handleInvalidRequest(InvalidRequestException ex) {
+        long suppressed = badRequestLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Error: invalid request: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+        return BAD_REQUEST.withDetail(ex.getMessage());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ProblemDetail handleResourceNotFound(ResourceNotFoundException ex) {
-        log.error("Error: can't find resource \n {}", ex.getMessage());
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
-        problemDetail.setTitle("Resource Not Found");
-        return problemDetail;
+        long suppressed = notFoundLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Error: can't find resource: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+        return NOT_FOUND.withDetail(ex.getMessage());
     }
 
     @ExceptionHandler(ResourceCreationConflictException.class)
     public ProblemDetail handleConflict(ResourceCreationConflictException ex) {
-        log.error("Error: creation resource conflict \n {}", ex.getMessage());
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, ex.getMessage());
-        problemDetail.setTitle("Resource Conflict");
-        return problemDetail;
+        long suppressed = conflictLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Error: creation resource conflict: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+        return CONFLICT.withDetail(ex.getMessage());
+    }
+
+    // uniqueness checks can be skipped by the existence filters of a node that has not seen another node's write;
+    // any other violated constraint is a bug, not a conflict the client could resolve
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleConstraintViolation(DataIntegrityViolationException ex) {
+        if (!isUniqueViolation(ex)) {
+            return handleGenericException(ex);
+        }
+        long suppressed = conflictLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Error: constraint violation: {} ({} similar suppressed)",
+                    ex.getMostSpecificCause().getMessage(), suppressed);
+        }
+        return CONFLICT.withDetail(CONSTRAINT_VIOLATION_DETAIL);
+    }
+
+    @ExceptionHandler({PreconditionFailedException.class, ObjectOptimisticLockingFailureException.class})
+    public ProblemDetail handlePreconditionFailed(RuntimeException ex) {
+        long suppressed = preconditionLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Conditional update rejected: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+        return PRECONDITION_FAILED.withDetail(PRECONDITION_FAILED_DETAIL);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
     public ProblemDetail handleAccessDenied(AccessDeniedException ex) {
-        log.warn("Access denied: {}", ex.getMessage());
-        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.FORBIDDEN, "You do not have permission to perform this action.");
-        problemDetail.setTitle("Access Denied");
-        return problemDetail;
+        long suppressed = accessDeniedLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            log.warn("Access denied: {} ({} similar suppressed)", ex.getMessage(), suppressed);
+        }
+        return ACCESS_DENIED.withDetail(ACCESS_DENIED_DETAIL);
     }
 
     @ExceptionHandler(Exception.class)
@@ -96,4 +167,28 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         problemDetail.setTitle("Internal Server Error");
         return problemDetail;
     }
-}
\ No newline at end of file
+
+    private static boolean isUniqueViolation(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The fixed parts of a problem response, resolved once. {@link ProblemDetail} is mutable
+     * (Spring fills in the request path as its instance), so each response still gets its own copy.
+     */
+    private record ProblemTemplate(HttpStatus status, String title) {
+
+        ProblemDetail withDetail(String detail) {
+            ProblemDetail problemDetail = ProblemDetail.forStatus(status);
+            problemDetail.setTitle(title);
+            problemDetail.setDetail(detail);
+            return problemDetail;
+        }
+    }
+}
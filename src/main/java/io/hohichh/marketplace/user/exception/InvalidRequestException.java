@@ -0,0 +1,31 @@
+/*
+ * Author: Yelizaveta Verkovich aka Hohich
+ * Task: Define custom exception for malformed request parameters (400 Bad Request)
+ */
+
+package io.hohichh.marketplace.user.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+
+/**
+ * Custom exception thrown when a request parameter cannot be used as given, e.g. a cursor that was not
+ * issued by this service or a page size outside the allowed range.
+ * <p>
+ * This exception is mapped to an HTTP 400 (Bad Request) response status.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends DomainException {
+
+    /**
+     * Constructs a new {@link InvalidRequestException} whose message is formatted from the template only when it is read.
+     *
+     * @param template The detail message, in which each {@code %s} is replaced by the next argument.
+     * @param args     The values for the placeholders of the template.
+     */
+    public InvalidRequestException(String template, Object... args) {
+        super(template, args);
+    }
+
+}
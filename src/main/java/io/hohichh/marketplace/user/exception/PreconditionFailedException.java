@@ -0,0 +1,40 @@
+/*
+ * Author: Yelizaveta Verkovich aka Hohich
+ * Task: Define custom exception for failed preconditions (412 Precondition Failed)
+ */
+
+package io.hohichh.marketplace.user.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Custom exception thrown when a conditional request does not apply to the current state of a resource,
+ * e.g. when the {@code If-Match} header of an update no longer matches the stored representation.
+ * <p>
+ * Annotated with {@code @ResponseStatus(HttpStatus.PRECONDITION_FAILED)}, this exception
+ * will cause Spring to return an HTTP 412 Precondition Failed response.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends DomainException {
+
+    /**
+     * Constructs a new PreconditionFailedException with the specified detail message.
+     *
+     * @param message The detail message explaining the reason for the exception.
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@link PreconditionFailedException} whose message is formatted from the template only when it is read.
+     *
+     * @param template The detail message, in which each {@code %s} is replaced by the next argument.
+     * @param args     The values for the placeholders of the template.
+     */
+    public PreconditionFailedException(String template, Object... args) {
+        super(template, args);
+    }
+
+}
@@ -17,7 +17,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * It is commonly used for violations of unique constraints, such as a duplicate email.
  */
 @ResponseStatus(HttpStatus.CONFLICT)
-public class ResourceCreationConflictException extends RuntimeException {
+public class ResourceCreationConflictException extends DomainException {
 
     /**
      * Constructs a new {@link ResourceCreationConflictException} with the specified detail message.
@@ -28,4 +28,14 @@ public class ResourceCreationConflictException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * Constructs a new {@link ResourceCreationConflictException} whose message is formatted from the template only when it is read.
+     *
+     * @param template The detail message, in which each {@code %s} is replaced by the next argument.
+     * @param args     The values for the placeholders of the template.
+     */
+    public ResourceCreationConflictException(String template, Object... args) {
+        super(template, args);
+    }
+
 }
\ No newline at end of file
@@ -15,7 +15,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * This exception is mapped to an HTTP 404 (Not Found) response status.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class ResourceNotFoundException extends RuntimeException {
+public class ResourceNotFoundException extends DomainException {
 
     /**
      * Constructs a new {@link ResourceNotFoundException} with the specified detail message.
@@ -26,4 +26,14 @@ public class ResourceNotFoundException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * Constructs a new {@link ResourceNotFoundException} whose message is formatted from the template only when it is read.
+     *
+     * @param template The detail message, in which each {@code %s} is replaced by the next argument.
+     * @param args     The values for the placeholders of the template.
+     */
+    public ResourceNotFoundException(String template, Object... args) {
+        super(template, args);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package io.hohichh.marketplace.user.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.hohichh.marketplace.user.config.GrpcServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the internal gRPC server on its own port for as long as the application context is running.
+ * Disable it with {@code application.grpc.enabled=false}.
+ */
+@Component
+@EnableConfigurationProperties(GrpcServerProperties.class)
+@ConditionalOnProperty(prefix = "application.grpc", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final GrpcServerProperties properties;
+    private final UserLookupGrpcService userLookupService;
+    private final JwtServerInterceptor jwtInterceptor;
+
+    private volatile Server server;
+
+    public GrpcServerLifecycle(GrpcServerProperties properties,
+                               UserLookupGrpcService userLookupService,
+                               JwtServerInterceptor jwtInterceptor) {
+        this.properties = properties;
+        this.userLookupService = userLookupService;
+        this.jwtInterceptor = jwtInterceptor;
+    }
+
+    @Override
+    public void start() {
+        Server created = NettyServerBuilder.forPort(properties.port())
+                .addService(ServerInterceptors.intercept(userLookupService, jwtInterceptor))
+                .build();
+        try {
+            created.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server on port " + properties.port(), e);
+        }
+        server = created;
+        logger.info("gRPC server listening on port {}", created.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(properties.shutdownGrace().toMillis(), TimeUnit.MILLISECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        logger.info("gRPC server stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,120 @@
+package io.hohichh.marketplace.user.grpc;
+
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.hohichh.marketplace.user.security.JwtValidator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Authenticates gRPC calls with the same bearer tokens as the HTTP API.
+ * <p>
+ * The token is read from the {@code authorization} metadata entry and verified by {@link JwtValidator}.
+ * gRPC may deliver the events of one call on different threads, so the authentication is installed
+ * in the {@link SecurityContextHolder} around every listener callback rather than once per call;
+ * the method security of the service layer then applies unchanged.
+ */
+@Component
+public class JwtServerInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> AUTHORIZATION =
+            Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtValidator jwtValidator;
+
+    public JwtServerInterceptor(JwtValidator jwtValidator) {
+        this.jwtValidator = jwtValidator;
+    }
+
+    @Override
+    public <Q, R> ServerCall.Listener<Q> interceptCall(ServerCall<Q, R> call,
+                                                       Metadata headers,
+                                                       ServerCallHandler<Q, R> next) {
+        String header = headers.get(AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Missing bearer token"), new Metadata());
+            return new ServerCall.Listener<>() { };
+        }
+
+        String token = header.substring(BEARER_PREFIX.length());
+        if (!jwtValidator.validateToken(token)) {
+            call.close(Status.UNAUTHENTICATED.withDescription("Invalid bearer token"), new Metadata());
+            return new ServerCall.Listener<>() { };
+        }
+
+        Authentication authentication = jwtValidator.toAuthentication(jwtValidator.getClaims(token));
+        return new AuthenticatedListener<>(runAs(authentication, () -> next.startCall(call, headers)), authentication);
+    }
+
+    private static <T> T runAs(Authentication authentication, Supplier<T> action) {
+        SecurityContext previous = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        try {
+            return action.get();
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    private static final class AuthenticatedListener<Q> extends SimpleForwardingServerCallListener<Q> {
+
+        private final Authentication authentication;
+
+        private AuthenticatedListener(ServerCall.Listener<Q> delegate, Authentication authentication) {
+            super(delegate);
+            this.authentication = authentication;
+        }
+
+        @Override
+        public void onMessage(Q message) {
+            runAs(authentication, () -> {
+                super.onMessage(message);
+                return null;
+            });
+        }
+
+        @Override
+        public void onHalfClose() {
+            runAs(authentication, () -> {
+                super.onHalfClose();
+                return null;
+            });
+        }
+
+        @Override
+        public void onCancel() {
+            runAs(authentication, () -> {
+                super.onCancel();
+                return null;
+            });
+        }
+
+        @Override
+        public void onComplete() {
+            runAs(authentication, () -> {
+                super.onComplete();
+                return null;
+            });
+        }
+
+        @Override
+        public void onReady() {
+            runAs(authentication, () -> {
+                super.onReady();
+                return null;
+            });
+        }
+    }
+}
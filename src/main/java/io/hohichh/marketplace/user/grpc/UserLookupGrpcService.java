@@ -0,0 +1,121 @@
+package io.hohichh.marketplace.user.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.hohichh.marketplace.user.cache.HotUserTracker;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
+import io.hohichh.marketplace.user.grpc.proto.GetCardsRequest;
+import io.hohichh.marketplace.user.grpc.proto.GetCardsResponse;
+import io.hohichh.marketplace.user.grpc.proto.GetUserRequest;
+import io.hohichh.marketplace.user.grpc.proto.GetUsersRequest;
+import io.hohichh.marketplace.user.grpc.proto.GetUsersResponse;
+import io.hohichh.marketplace.user.grpc.proto.User;
+import io.hohichh.marketplace.user.grpc.proto.UserExistsRequest;
+import io.hohichh.marketplace.user.grpc.proto.UserExistsResponse;
+import io.hohichh.marketplace.user.grpc.proto.UserLookupGrpc;
+import io.hohichh.marketplace.user.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Internal gRPC counterpart of the read endpoints of {@code RestUserController}.
+ * <p>
+ * Every call goes through {@link UserService}, so caching and method security are the same as for the
+ * HTTP API; service exceptions are translated to the matching gRPC status codes.
+ */
+@Component
+public class UserLookupGrpcService extends UserLookupGrpc.UserLookupImplBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserLookupGrpcService.class);
+
+    /** Same limit as {@code UserLookupRequest}. */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final UserService userService;
+    private final HotUserTracker hotUserTracker;
+
+    public UserLookupGrpcService(UserService userService, HotUserTracker hotUserTracker) {
+        this.userService = userService;
+        this.hotUserTracker = hotUserTracker;
+    }
+
+    @Override
+    public void getUser(GetUserRequest request, StreamObserver<User> responseObserver) {
+        respond(responseObserver, () -> {
+            UUID id = UserProtoMapper.toUuid(request.getId());
+            UserWithCardsDto user = userService.getUserById(id);
+            hotUserTracker.recordAccess(id);
+            return UserProtoMapper.toProto(user);
+        });
+    }
+
+    @Override
+    public void getUsers(GetUsersRequest request, StreamObserver<GetUsersResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            if (request.getIdsCount() == 0 || request.getIdsCount() > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("Between 1 and " + MAX_BATCH_SIZE + " ids must be requested");
+            }
+            List<UUID> ids = request.getIdsList().stream()
+                    .map(UserProtoMapper::toUuid)
+                    .toList();
+
+            GetUsersResponse.Builder response = GetUsersResponse.newBuilder();
+            for (UserWithCardsDto user : userService.getUsersByIds(ids)) {
+                hotUserTracker.recordAccess(user.id());
+                response.addUsers(UserProtoMapper.toProto(user));
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public void getCards(GetCardsRequest request, StreamObserver<GetCardsResponse> responseObserver) {
+        respond(responseObserver, () -> {
+            UUID userId = UserProtoMapper.toUuid(request.getUserId());
+            GetCardsResponse.Builder response = GetCardsResponse.newBuilder();
+            userService.getCardsByUserId(userId)
+                    .forEach(card -> response.addCards(UserProtoMapper.toProto(card)));
+            return response.build();
+        });
+    }
+
+    @Override
+    public void userExists(UserExistsRequest request, StreamObserver<UserExistsResponse> responseObserver) {
+        respond(responseObserver, () -> UserExistsResponse.newBuilder()
+                .setExists(userService.userExists(UserProtoMapper.toUuid(request.getId())))
+                .build());
+    }
+
+    private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (ResourceNotFoundException e) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (AccessDeniedException e) {
+            responseObserver.onError(Status.PERMISSION_DENIED.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (AuthenticationException e) {
+            responseObserver.onError(Status.UNAUTHENTICATED.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (RuntimeException e) {
+            logger.error("gRPC call failed", e);
+            responseObserver.onError(Status.INTERNAL.withDescription("Internal error").asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+}
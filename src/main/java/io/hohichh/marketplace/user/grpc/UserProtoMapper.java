@@ -0,0 +1,67 @@
+package io.hohichh.marketplace.user.grpc;
+
+import com.google.protobuf.ByteString;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.grpc.proto.Card;
+import io.hohichh.marketplace.user.grpc.proto.User;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Converts the service DTOs to the protobuf messages of the internal lookup API.
+ * Identifiers travel as 16 raw bytes and dates as days since the epoch.
+ */
+final class UserProtoMapper {
+
+    private static final int UUID_BYTES = 16;
+
+    private UserProtoMapper() {
+    }
+
+    static User toProto(UserWithCardsDto user) {
+        User.Builder builder = User.newBuilder()
+                .setId(toBytes(user.id()))
+                .setName(user.name())
+                .setEmail(user.email());
+        if (user.surname() != null) {
+            builder.setSurname(user.surname());
+        }
+        if (user.birthDate() != null) {
+            builder.setBirthDate((int) user.birthDate().toEpochDay());
+        }
+        for (CardInfoDto card : user.cards()) {
+            builder.addCards(toProto(card));
+        }
+        return builder.build();
+    }
+
+    static Card toProto(CardInfoDto card) {
+        return Card.newBuilder()
+                .setId(toBytes(card.id()))
+                .setUserId(toBytes(card.userId()))
+                .setNumber(card.cardNumber())
+                .setHolder(card.cardHolderName())
+                .setExpirationDate((int) card.expirationDate().toEpochDay())
+                .build();
+    }
+
+    static ByteString toBytes(UUID id) {
+        return ByteString.copyFrom(ByteBuffer.allocate(UUID_BYTES)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .flip());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not exactly 16 bytes long.
+     */
+    static UUID toUuid(ByteString bytes) {
+        if (bytes.size() != UUID_BYTES) {
+            throw new IllegalArgumentException("Identifier must be " + UUID_BYTES + " bytes, got " + bytes.size());
+        }
+        ByteBuffer buffer = bytes.asReadOnlyByteBuffer();
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
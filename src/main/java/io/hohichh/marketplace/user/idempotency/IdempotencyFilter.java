@@ -0,0 +1,348 @@
+package io.hohichh.marketplace.user.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.config.IdempotencyProperties;
+import io.hohichh.marketplace.user.logging.LogRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Makes the create endpoints safe to retry with an {@code Idempotency-Key} header.
+ * <p>
+ * The first request with a key runs normally and its response, status, headers and body, is stored for
+ * {@code application.idempotency.ttl}. Retries with the same key get the stored response back without
+ * running the request again, marked with an {@code Idempotent-Replayed} header. A duplicate arriving while
+ * the original is still running waits for it. Keys are scoped by principal, method and path, and a key
+ * reused with a different request body is rejected with 422. The body is buffered to detect this, so requests
+ * with a key and a body larger than {@code application.idempotency.max-body-size} are rejected with 413.
+ * <p>
+ * Server errors are not stored, so a retry after a 5xx runs the request again. If the store is unavailable,
+ * requests run without idempotency.
+ */
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ANONYMOUS = "anonymous";
+    // written for every response, or replayed separately
+    private static final Set<String> UNSTORED_HEADERS = caseInsensitive(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.DATE, HttpHeaders.SET_COOKIE,
+            "Server-Timing");
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final List<PathPattern> paths;
+    private final LogRateLimiter failureLogLimiter = new LogRateLimiter(1, Duration.ofSeconds(10));
+
+    public IdempotencyFilter(IdempotencyProperties properties, IdempotencyStore store, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.paths = properties.paths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!properties.enabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null) {
+            return true;
+        }
+        PathContainer path = PathContainer.parsePath(pathWithinApplication(request));
+        return paths.stream().noneMatch(pattern -> pattern.matches(path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeProblem(response, HttpStatus.BAD_REQUEST, "Invalid Idempotency Key",
+                    "The Idempotency-Key header must have 1 to " + MAX_KEY_LENGTH + " characters.");
+            return;
+        }
+
+        byte[] body = readBody(request);
+        if (body == null) {
+            writeProblem(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request Body Too Large",
+                    "Requests with an Idempotency-Key may have a body of at most "
+                            + properties.maxBodySize().toBytes() + " bytes.");
+            return;
+        }
+        HttpServletRequest cachedRequest = new CachedBodyRequest(request, body);
+        String key = properties.keyPrefix() + principal() + ":" + pathWithinApplication(request) + ":" + idempotencyKey;
+        StoredResponse pending = StoredResponse.pending(fingerprint(body), UUID.randomUUID().toString());
+
+        StoredResponse existing;
+        try {
+            existing = store.claim(key, pending, properties.pendingTtl());
+        } catch (RuntimeException e) {
+            logStoreFailure(e);
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+
+        if (existing != null) {
+            replay(key, existing, pending.fingerprint(), response);
+            return;
+        }
+
+        Map<String, List<String>> headersBefore = headers(response);
+        ContentCachingResponseWrapper capturingResponse = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(cachedRequest, capturingResponse);
+            if (capturingResponse.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                Map<String, List<String>> headers = headers(capturingResponse);
+                headers.entrySet().removeIf(header -> header.getValue().equals(headersBefore.get(header.getKey())));
+                stored = completeQuietly(key, new StoredResponse(pending.fingerprint(), pending.owner(),
+                        capturingResponse.getStatus(), capturingResponse.getContentType(), headers,
+                        capturingResponse.getContentAsByteArray()));
+            }
+        } finally {
+            if (!stored) {
+                releaseQuietly(key, pending);
+            }
+            capturingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(String key, StoredResponse existing, String fingerprint, HttpServletResponse response)
+            throws IOException {
+
+        StoredResponse current = existing;
+        long deadline = System.nanoTime() + properties.waitTimeout().toNanos();
+        while (current != null && current.isPending() && System.nanoTime() - deadline < 0) {
+            if (!current.fingerprint().equals(fingerprint)) {
+                break;
+            }
+            try {
+                Thread.sleep(properties.pollInterval());
+                current = store.get(key);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logStoreFailure(e);
+                break;
+            }
+        }
+
+        if (current != null && !current.fingerprint().equals(fingerprint)) {
+            writeProblem(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency Key Reused",
+                    "The Idempotency-Key was already used for a different request.");
+            return;
+        }
+        if (current == null || current.isPending()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            writeProblem(response, HttpStatus.CONFLICT, "Request In Progress",
+                    "A request with this Idempotency-Key is still being processed. Retry later.");
+            return;
+        }
+
+        response.setStatus(current.status());
+        if (current.headers() != null) {
+            current.headers().forEach((name, values) -> {
+                response.setHeader(name, values.get(0));
+                values.stream().skip(1).forEach(value -> response.addHeader(name, value));
+            });
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (current.contentType() != null) {
+            response.setContentType(current.contentType());
+        }
+        if (current.body() != null) {
+            response.setContentLength(current.body().length);
+            response.getOutputStream().write(current.body());
+        }
+    }
+
+    /**
+     * @return The request body, or {@code null} if it is larger than {@code application.idempotency.max-body-size}.
+     */
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        long limit = properties.maxBodySize().toBytes();
+        if (request.getContentLengthLong() > limit) {
+            return null;
+        }
+        // one byte more than the limit tells an oversized body sent without Content-Length
+        byte[] body = request.getInputStream().readNBytes(Math.toIntExact(limit + 1));
+        return body.length > limit ? null : body;
+    }
+
+    private boolean completeQuietly(String key, StoredResponse response) {
+        try {
+            store.complete(key, response, properties.ttl());
+            return true;
+        } catch (RuntimeException e) {
+            logStoreFailure(e);
+            return false;
+        }
+    }
+
+    private void releaseQuietly(String key, StoredResponse pending) {
+        try {
+            store.release(key, pending);
+        } catch (RuntimeException e) {
+            logStoreFailure(e);
+        }
+    }
+
+    private void logStoreFailure(RuntimeException e) {
+        long suppressed = failureLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("Idempotency store unavailable, running request without it: {} ({} similar suppressed)",
+                    e.getMessage(), suppressed);
+        }
+    }
+
+    private void writeProblem(HttpServletResponse response, HttpStatus status, String title, String detail)
+            throws IOException {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(status, detail);
+        problemDetail.setTitle(title);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problemDetail);
+    }
+
+    private static Map<String, List<String>> headers(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!UNSTORED_HEADERS.contains(name)) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static Set<String> caseInsensitive(String... names) {
+        Set<String> set = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        set.addAll(List.of(names));
+        return Collections.unmodifiableSet(set);
+    }
+
+    private static String principal() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth.getName() == null ? ANONYMOUS : auth.getName();
+    }
+
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Request whose body has already been read, so it can be both hashed and passed on.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // the whole body is in memory, so it is available and read completely at once
+                    try {
+                        readListener.onDataAvailable();
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() == null
+                    ? StandardCharsets.UTF_8
+                    : Charset.forName(getCharacterEncoding());
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
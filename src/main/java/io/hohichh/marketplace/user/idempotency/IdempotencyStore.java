@@ -0,0 +1,42 @@
+package io.hohichh.marketplace.user.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Shared store of idempotency keys and the responses produced for them.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Takes the key for a new request unless it is already known.
+     *
+     * @param key     The scoped idempotency key.
+     * @param pending The state to store if the key is free.
+     * @param ttl     How long the key is held if the request never completes.
+     * @return {@code null} if the key was taken by this call, otherwise its current state.
+     */
+    StoredResponse claim(String key, StoredResponse pending, Duration ttl);
+
+    /**
+     * @param key The scoped idempotency key.
+     * @return The current state of the key, or {@code null} if it is unknown.
+     */
+    StoredResponse get(String key);
+
+    /**
+     * Replaces the pending state of the key with the response of the request.
+     *
+     * @param key      The scoped idempotency key.
+     * @param response The response to replay to retries.
+     * @param ttl      How long the response is kept.
+     */
+    void complete(String key, StoredResponse response, Duration ttl);
+
+    /**
+     * Frees the key if it is still held by the given request, so a retry runs the request again.
+     *
+     * @param key     The scoped idempotency key.
+     * @param pending The state stored when the key was taken.
+     */
+    void release(String key, StoredResponse pending);
+}
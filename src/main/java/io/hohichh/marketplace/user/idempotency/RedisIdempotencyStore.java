@@ -0,0 +1,81 @@
+package io.hohichh.marketplace.user.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@link IdempotencyStore} keeping each key as one JSON value in Redis.
+ * <p>
+ * A key is taken with {@code SET NX}, so exactly one of several concurrent requests runs.
+ * Releasing is a compare-and-delete, so a request whose key has already expired never removes
+ * a key taken over by a later retry.
+ */
+@Component
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public StoredResponse claim(String key, StoredResponse pending, Duration ttl) {
+        String value = write(pending);
+        // retried once in case the key expires between the two calls
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, ttl))) {
+                return null;
+            }
+            StoredResponse current = get(key);
+            if (current != null) {
+                return current;
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public StoredResponse get(String key) {
+        String value = redisTemplate.opsForValue().get(key);
+        return value == null ? null : read(value);
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response, Duration ttl) {
+        redisTemplate.opsForValue().set(key, write(response), ttl);
+    }
+
+    @Override
+    public void release(String key, StoredResponse pending) {
+        redisTemplate.execute(RELEASE_SCRIPT, List.of(key), write(pending));
+    }
+
+    private String write(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize stored response", e);
+        }
+    }
+
+    private StoredResponse read(String value) {
+        try {
+            return objectMapper.readValue(value, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not deserialize stored response", e);
+        }
+    }
+}
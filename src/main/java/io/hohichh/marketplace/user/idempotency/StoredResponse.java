@@ -0,0 +1,26 @@
+package io.hohichh.marketplace.user.idempotency;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of an idempotency key: either a request in progress or the response it produced.
+ *
+ * @param fingerprint Hash of the request body, so a key reused for a different request is detected.
+ * @param owner       Random token of the request that holds the key.
+ * @param status      The HTTP status of the response, or {@code 0} while the request is in progress.
+ * @param contentType The content type of the response, if any.
+ * @param headers     The other headers set while handling the request, such as {@code Location} or {@code ETag}.
+ * @param body        The response body.
+ */
+public record StoredResponse(String fingerprint, String owner, int status, String contentType,
+                             Map<String, List<String>> headers, byte[] body) {
+
+    static StoredResponse pending(String fingerprint, String owner) {
+        return new StoredResponse(fingerprint, owner, 0, null, null, null);
+    }
+
+    boolean isPending() {
+        return status == 0;
+    }
+}
@@ -0,0 +1,39 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the {@code Server-Timing} header of {@link StatementMetricsFilter} to responses with a body.
+ * Writing the body commits the response, so the header has to be set before; statements executed while
+ * the body is serialized are therefore left out of the header, though not out of the metrics.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "application.statement-metrics.response-header", havingValue = "true")
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        StatementScope scope = StatementScope.current();
+        if (scope != null) {
+            response.getHeaders().set(StatementMetricsFilter.SERVER_TIMING, StatementMetricsFilter.serverTiming(scope));
+        }
+        return body;
+    }
+}
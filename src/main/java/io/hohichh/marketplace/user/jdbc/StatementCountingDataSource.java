@@ -0,0 +1,45 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * A datasource-proxy in front of the application's data source that reports every executed statement
+ * to {@link StatementScope}.
+ * <p>
+ * Unlike the plain proxy it can be unwrapped to the data source behind it, so the connection pool
+ * metrics still find the pool.
+ */
+public class StatementCountingDataSource extends ProxyDataSource {
+
+    /**
+     * @param name   The name of the data source, as the proxy reports it.
+     * @param target The data source to measure.
+     */
+    public StatementCountingDataSource(String name, DataSource target) {
+        super(target);
+        setProxyConfig(ProxyConfig.Builder.create()
+                .dataSourceName(name)
+                .queryListener(new StatementCountingListener())
+                // the default stopwatch only measures whole milliseconds
+                .stopwatchFactory(new NanoTimeStopwatchFactory())
+                .build());
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return getDataSource().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || getDataSource().isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,25 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Reports every statement executed through {@link StatementCountingDataSource} to the open
+ * {@link StatementScope}s of the executing thread. Threads without an open scope, such as scheduled jobs,
+ * are not measured.
+ */
+class StatementCountingListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // nanoseconds, as the data source measures with System.nanoTime()
+        StatementScope.record(execInfo.getElapsedTime());
+    }
+}
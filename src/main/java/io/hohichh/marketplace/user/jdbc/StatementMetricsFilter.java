@@ -0,0 +1,101 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import io.hohichh.marketplace.user.config.StatementMetricsProperties;
+import io.hohichh.marketplace.user.logging.LogRateLimiter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the JDBC statements of each request and records them, with the time spent executing them,
+ * per endpoint: {@code http.server.requests.jdbc.statements} and {@code http.server.requests.jdbc.time},
+ * tagged with the same {@code method} and {@code uri} as Spring's {@code http.server.requests}.
+ * <p>
+ * Requests that exceed the configured number of statements are logged, as they usually load
+ * an association row by row. With {@code response-header} enabled the counts are also returned in a
+ * {@code Server-Timing} header; see {@link ServerTimingAdvice} for responses with a body.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class StatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final StatementMetricsProperties properties;
+    private final LogRateLimiter warnLogLimiter = new LogRateLimiter(10, Duration.ofSeconds(1));
+
+    public StatementMetricsFilter(MeterRegistry meterRegistry, StatementMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        StatementScope scope = StatementScope.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            record(request, response, scope);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, StatementScope scope) {
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+
+        DistributionSummary.builder("http.server.requests.jdbc.statements")
+                .description("JDBC statements executed by a request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.statements());
+        Timer.builder("http.server.requests.jdbc.time")
+                .description("Time a request spent executing JDBC statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(scope.elapsedNanos(), TimeUnit.NANOSECONDS);
+
+        if (scope.statements() > properties.warnThreshold()) {
+            long suppressed = warnLogLimiter.tryAcquire();
+            if (suppressed >= 0) {
+                logger.warn("{} {} executed {} statements in {} ms ({} similar suppressed)",
+                        method, uri, scope.statements(), scope.elapsed().toMillis(), suppressed);
+            }
+        }
+
+        // responses without a body are still open here; the others got the header from ServerTimingAdvice
+        if (properties.responseHeader() && !response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+            response.setHeader(SERVER_TIMING, serverTiming(scope));
+        }
+    }
+
+    static String serverTiming(StatementScope scope) {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements\"",
+                scope.elapsedNanos() / 1_000_000.0, scope.statements());
+    }
+}
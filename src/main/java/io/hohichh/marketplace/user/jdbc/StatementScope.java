@@ -0,0 +1,83 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import java.time.Duration;
+
+/**
+ * Counts the JDBC statements the current thread executes between {@link #open()} and {@link #close()},
+ * together with the time spent executing them.
+ * <p>
+ * Scopes nest: a statement counts towards every open scope of its thread, so a test can measure one call
+ * inside a request that is measured as a whole. A scope must be closed by the thread that opened it and in
+ * reverse order of opening, which try-with-resources does. Statements run on other threads, such as the
+ * body of a streamed response, are not counted.
+ * <p>
+ * Statements are only counted when the data source is wrapped by {@code StatementMetricsConfig}.
+ */
+public final class StatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<StatementScope> CURRENT = new ThreadLocal<>();
+
+    private final StatementScope parent;
+    private int statements;
+    private long elapsedNanos;
+
+    private StatementScope(StatementScope parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Starts counting the statements of the current thread.
+     */
+    public static StatementScope open() {
+        StatementScope scope = new StatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * @return The innermost open scope of the current thread, or {@code null} if there is none.
+     */
+    static StatementScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Adds an executed statement to every open scope of the current thread.
+     */
+    static void record(long elapsedNanos) {
+        for (StatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.elapsedNanos += elapsedNanos;
+        }
+    }
+
+    /**
+     * @return The number of statements executed so far; a batch counts as one.
+     */
+    public int statements() {
+        return statements;
+    }
+
+    /**
+     * @return The time spent executing them, from the call until the driver returned.
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() != this) {
+            throw new IllegalStateException("Statement scopes must be closed in reverse order by the thread that opened them");
+        }
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.hohichh.marketplace.user.logging;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps how many lines of one kind are logged per time window, so a flood of identical client errors
+ * cannot saturate the log pipeline. Suppressed lines are counted and reported with the next permitted one.
+ * <p>
+ * Thread-safe and lock-free; a permit costs two atomic operations.
+ */
+public final class LogRateLimiter {
+
+    private final int permitsPerWindow;
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+
+    private final AtomicLong windowStart;
+    private final AtomicLong usedInWindow = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * @param permitsPerWindow How many lines may be logged per window.
+     * @param window           The length of a window.
+     */
+    public LogRateLimiter(int permitsPerWindow, Duration window) {
+        this(permitsPerWindow, window, System::nanoTime);
+    }
+
+    LogRateLimiter(int permitsPerWindow, Duration window, LongSupplier nanoTime) {
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        this.windowStart = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * @return The number of lines suppressed since the last permitted one if this line may be logged,
+     *         or {@code -1} if it must be dropped.
+     */
+    public long tryAcquire() {
+        long now = nanoTime.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            usedInWindow.set(0);
+        }
+        if (usedInWindow.incrementAndGet() > permitsPerWindow) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,24 @@
+package io.hohichh.marketplace.user.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Per-request sampling of routine success logs.
+ * <p>
+ * Lines logged with the {@link #SAMPLED} marker are written only for requests that
+ * {@link RequestLogSamplingFilter} selected for sampling; {@link SampledLogTurboFilter} drops them for all
+ * other requests before the message is formatted. Outside an HTTP request, for example in scheduled jobs
+ * or gRPC calls, marked lines are always written.
+ */
+public final class LogSampling {
+
+    /** Marks an INFO line that only needs to be written for sampled requests. */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    /** MDC entry holding the sampling decision of the current request, {@code "true"} or {@code "false"}. */
+    public static final String MDC_KEY = "sampled";
+
+    private LogSampling() {
+    }
+}
@@ -0,0 +1,24 @@
+package io.hohichh.marketplace.user.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops {@link LogSampling#SAMPLED} lines of requests that were not selected for sampling.
+ * Registered in {@code logback-spring.xml}; as a turbo filter it runs before the event is created,
+ * so a dropped line costs neither formatting nor a slot in the async appender queues.
+ */
+public class SampledLogTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || level.isGreaterOrEqual(Level.WARN) || !marker.contains(LogSampling.SAMPLED)) {
+            return FilterReply.NEUTRAL;
+        }
+        return "false".equals(MDC.get(LogSampling.MDC_KEY)) ? FilterReply.DENY : FilterReply.NEUTRAL;
+    }
+}
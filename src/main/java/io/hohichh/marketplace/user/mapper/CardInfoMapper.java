@@ -47,12 +47,13 @@ public interface CardInfoMapper {
 
     /**
      * Converts a {@link NewCardInfoDto} (used for creating new cards) to a {@link CardInfo} entity.
-     * The 'user' field is ignored, as it must be set manually in the service layer.
+     * The 'user' field is ignored, as it must be set manually in the service layer, and 'userId' follows it.
      *
      * @param newCardDto The creation DTO.
      * @return The resulting CardInfo entity.
      */
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "userId", ignore = true)
     @Mapping(target = "number", source = "cardNumber")
     @Mapping(target = "holder", source = "cardHolderName")
     @Mapping(target = "expiryDate", source = "expirationDate")
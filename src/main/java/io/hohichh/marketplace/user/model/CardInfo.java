@@ -8,6 +8,11 @@ package io.hohichh.marketplace.user.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.PartitionKey;
 
 import java.time.LocalDate;
 import java.util.UUID;
@@ -18,6 +23,12 @@ import java.util.UUID;
  * This entity is mapped to the "card_info" table in the database.
  * It holds details such as the card number, holder's name, and expiration date.
  * It also maintains a many-to-one relationship with the {@link User} entity.
+ * <p>
+ * Cards and the number-to-id mapping are kept in the Hibernate second-level cache.
+ * <p>
+ * The table is partitioned by owner and expiration date, so Hibernate adds both to the {@code WHERE} clause
+ * of the updates and deletes of a card, which then touch a single partition. Only basic attributes can be
+ * partition keys, so the owner's id is mapped a second time, read-only, next to the association.
  */
 @Getter
 @Setter
@@ -26,15 +37,18 @@ import java.util.UUID;
 @NoArgsConstructor
 @Entity
 @Table(name = "card_info")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "card-entities")
+@NaturalIdCache(region = "card-numbers")
 public class CardInfo {
 
     /**
      * The unique identifier for the card information.
-     * Generated automatically as a UUID.
+     * Generated automatically as a time-ordered version 7 UUID, see {@link UuidV7Generator}.
      * The setter is private (AccessLevel.NONE) as the ID is managed by the persistence provider.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "id")
     @Setter(AccessLevel.NONE)
     private UUID id;
@@ -49,10 +63,20 @@ public class CardInfo {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * The id of the owner, written through {@link #user} and copied here before every insert or update.
+     */
+    @PartitionKey
+    @Column(name = "user_id", insertable = false, updatable = false)
+    @Setter(AccessLevel.NONE)
+    private UUID userId;
+
     /**
      * The payment card number.
      * This field is mandatory and must be unique across all cards.
+     * It is the natural id of the card, so lookups by number resolve from the cache.
      */
+    @NaturalId
     @Column(name = "number", nullable = false, unique = true)
     private String number;
 
@@ -67,6 +91,13 @@ public class CardInfo {
      * The expiration date of the card.
      * This field is mandatory.
      */
+    @PartitionKey
     @Column(name = "expiration_date", nullable = false)
     private LocalDate expiryDate;
+
+    @PrePersist
+    @PreUpdate
+    private void copyUserId() {
+        userId = user.getId();
+    }
 }
\ No newline at end of file
@@ -11,6 +11,10 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -22,21 +26,26 @@ import java.util.UUID;
  * This entity is mapped to the "users" table in the database.
  * It contains core user information such as name, email, and birth date.
  * It has a one-to-many relationship with {@link CardInfo} (managed from the CardInfo side).
+ * <p>
+ * Users, their card collections and the email-to-id mapping are kept in the Hibernate second-level cache.
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
 @Table(name="users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-entities")
+@NaturalIdCache(region = "user-emails")
 public class User {
 
     /**
      * The unique identifier for the user.
-     * Generated automatically as a UUID.
+     * Generated automatically as a time-ordered version 7 UUID, see {@link UuidV7Generator}.
      * The setter is private (AccessLevel.NONE) as the ID is managed by the persistence provider.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Setter(AccessLevel.NONE)
     @Column(name = "id")
     private UUID id;
@@ -65,10 +74,26 @@ public class User {
     /**
      * The user's email address.
      * This field is mandatory and must be unique across all users.
+     * It is the natural id of the user, so lookups by email resolve from the cache; users may change it.
      */
+    @NaturalId(mutable = true)
     @Column(name = "email", nullable = false, unique = true)
     private String email;
 
+    /**
+     * Optimistic lock counter, incremented by Hibernate on every update.
+     * Concurrent updates based on the same state fail instead of overwriting each other.
+     */
+    @Version
+    @Setter(AccessLevel.NONE)
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * The user's cards, ordered by id so that their representation (and its ETag) is stable between loads.
+     */
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-cards")
     @OneToMany(
             mappedBy = "user",
             cascade = CascadeType.ALL,
@@ -0,0 +1,72 @@
+package io.hohichh.marketplace.user.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates version 7 UUIDs (RFC 9562): a 48-bit Unix millisecond timestamp followed by a 12-bit counter
+ * and 62 random bits.
+ * <p>
+ * Values increase with time, so new rows are appended to the right edge of the primary-key index
+ * (and of indexes on columns referencing it) instead of landing on random pages, while the column stays
+ * a plain {@code uuid}. Within one millisecond the counter, started at a random value below 2048, keeps
+ * the values of one generator strictly increasing; should it overflow, the timestamp part runs ahead of
+ * the clock until the clock catches up, as the RFC allows. A clock that steps back never produces smaller values.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3fff_ffff_ffff_ffffL;
+
+    private final LongSupplier currentTimeMillis;
+
+    /** Timestamp and counter of the last value: {@code millis << 12 | counter}. */
+    private final AtomicLong last = new AtomicLong();
+
+    public UuidV7Generator() {
+        this(System::currentTimeMillis);
+    }
+
+    UuidV7Generator(LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    /**
+     * @return A new UUID that is greater than every UUID previously returned by this generator.
+     */
+    public UUID next() {
+        long fresh = currentTimeMillis.getAsLong() << 12;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = fresh > previous ? fresh | RANDOM.nextInt(2048) : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+
+        long mostSigBits = (next >>> 12) << 16 | VERSION | (next & 0xfff);
+        long leastSigBits = VARIANT | (RANDOM.nextLong() & RANDOM_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,21 @@
+package io.hohichh.marketplace.user.repository;
+
+import io.hohichh.marketplace.user.model.CardInfo;
+
+import java.util.Optional;
+
+/**
+ * Lookups of {@link CardInfo} entities by their natural id, the card number.
+ */
+public interface CardNaturalIdRepository {
+
+    /**
+     * Finds a card by its unique card number.
+     * <p>
+     * Resolved through the natural-id cache, so repeated lookups of the same number do not query the database.
+     *
+     * @param number The card number to search for.
+     * @return An {@link Optional} containing the {@link CardInfo} if found, or an empty {@link Optional} if not.
+     */
+    Optional<CardInfo> findByNumber(String number);
+}
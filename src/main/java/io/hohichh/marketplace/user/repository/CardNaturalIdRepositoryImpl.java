@@ -0,0 +1,21 @@
+package io.hohichh.marketplace.user.repository;
+
+import io.hohichh.marketplace.user.model.CardInfo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class CardNaturalIdRepositoryImpl implements CardNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<CardInfo> findByNumber(String number) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(CardInfo.class)
+                .loadOptional(number);
+    }
+}
@@ -7,41 +7,61 @@
 package io.hohichh.marketplace.user.repository;
 
 import io.hohichh.marketplace.user.model.CardInfo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Spring Data JPA repository for {@link CardInfo} entities.
- * Provides standard CRUD operations and custom queries for managing payment cards.
+ * Provides standard CRUD operations and custom queries for managing payment cards,
+ * and lookups by number through {@link CardNaturalIdRepository}.
  */
-public interface CardRepository extends JpaRepository<CardInfo, UUID> {
+public interface CardRepository extends JpaRepository<CardInfo, UUID>, CardNaturalIdRepository {
 
     /**
-     * Finds a card by its unique card number.
+     * Finds all cards associated with a specific user ID.
      * <p>
-     * This method is created for demonstration of query derivation from the method name.
+     * This method is created for demonstration of a custom JPQL query.
+     * The result is kept in the query cache until {@code card_info} changes.
      *
-     * @param number The card number to search for.
-     * @return An {@link Optional} containing the {@link CardInfo} if found, or an empty {@link Optional} if not.
+     * @param userId The UUID of the user.
+     * @return A {@link List} of {@link CardInfo} entities associated with the given user, ordered by id.
      */
-    Optional<CardInfo> findByNumber(String number);
+    @Query("SELECT c FROM CardInfo c WHERE c.user.id = :userId ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<CardInfo> findByUserId(UUID userId);
 
     /**
-     * Finds all cards associated with a specific user ID.
+     * Finds all cards of a user for the shared {@code userCards} cache.
      * <p>
-     * This method is created for demonstration of a custom JPQL query.
+     * Reads the database rather than this node's second-level cache, which may still hold cards changed
+     * by another node, and refreshes the cached entities with what it reads.
      *
      * @param userId The UUID of the user.
-     * @return A {@link List} of {@link CardInfo} entities associated with the given user.
+     * @return The user's cards ordered by id.
      */
-    @Query("SELECT c FROM CardInfo c WHERE c.user.id = :userId")
-    List<CardInfo> findByUserId(UUID userId);
+    @Query("SELECT c FROM CardInfo c WHERE c.user.id = :userId ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    List<CardInfo> findAllOfUser(@Param("userId") UUID userId);
+
+    /**
+     * Finds all cards of the user who owns the given card, in one query.
+     * Like {@link #findAllOfUser}, it bypasses the second-level cache.
+     *
+     * @param cardId The UUID of one of the user's cards.
+     * @return The owner's cards ordered by id, or an empty list if the card does not exist.
+     */
+    @Query("SELECT c FROM CardInfo c WHERE c.user.id = (SELECT o.user.id FROM CardInfo o WHERE o.id = :cardId) " +
+            "ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    List<CardInfo> findAllOfOwnerByCardId(@Param("cardId") UUID cardId);
 
     /**
      * Finds all cards where the expiration date is before the current date.
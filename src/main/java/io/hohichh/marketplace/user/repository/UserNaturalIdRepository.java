@@ -0,0 +1,21 @@
+package io.hohichh.marketplace.user.repository;
+
+import io.hohichh.marketplace.user.model.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups of {@link User} entities by their natural id, the email address.
+ */
+public interface UserNaturalIdRepository {
+
+    /**
+     * Finds a user by their unique email address.
+     * <p>
+     * Resolved through the natural-id cache, so repeated lookups of the same email do not query the database.
+     *
+     * @param email The user's email address to search for.
+     * @return An {@link Optional} containing the {@link User} if found, or an empty {@link Optional} if not.
+     */
+    Optional<User> findByEmail(String email);
+}
@@ -6,32 +6,27 @@
 package io.hohichh.marketplace.user.repository;
 
 import io.hohichh.marketplace.user.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Spring Data JPA repository for {@link User} entities.
- * Provides standard CRUD operations and custom queries for managing users.
+ * Provides standard CRUD operations and custom queries for managing users,
+ * and lookups by email through {@link UserNaturalIdRepository}.
  */
-public interface UserRepository extends JpaRepository<User, UUID> {
-
-    /**
-     * Finds a user by their unique email address.
-     * <p>
-     * This method is created for demonstration of query derivation from the method name.
-     *
-     * @param email The user's email address to search for.
-     * @return An {@link Optional} containing the {@link User} if found, or an empty {@link Optional} if not.
-     */
-    Optional<User> findByEmail(String email);
+public interface UserRepository extends JpaRepository<User, UUID>, UserNaturalIdRepository {
 
     /**
      * Searches for users whose name, surname, or email contains the given search term (case-insensitive).
@@ -55,10 +50,34 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      *
      * @return A {@link List} of {@link User} entities whose birthday is today.
      */
-    @Query(value = "SELECT id, name, surname, birth_date, email FROM users u " +
+    @Query(value = "SELECT id, name, surname, birth_date, email, version FROM users u " +
             "WHERE EXTRACT(MONTH FROM u.birth_date) = EXTRACT(MONTH FROM CAST(:date AS date)) " +
             "AND EXTRACT(DAY FROM u.birth_date) = EXTRACT(DAY FROM CAST(:date AS date))",
             nativeQuery = true)
     List<User> findUsersWithBirthDayToday(@Param("date") LocalDate date);
-}
 
+    /**
+     * Finds the user with the given ID together with their cards in a single query.
+     * <p>
+     * Its result goes to the shared {@code users} cache, so it reads the database rather than this node's
+     * second-level cache, which may still hold a user changed by another node, and refreshes the cached
+     * entities with what it reads.
+     *
+     * @param id The UUID of the user to load.
+     * @return An {@link Optional} containing the {@link User} with initialized cards, or an empty {@link Optional}.
+     */
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.cards WHERE u.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    Optional<User> findWithCardsById(@Param("id") UUID id);
+
+    /**
+     * Finds the users with the given IDs together with their cards in a single query.
+     * IDs without a matching user are skipped. Like {@link #findWithCardsById}, it bypasses the second-level cache.
+     *
+     * @param ids The UUIDs of the users to load.
+     * @return A {@link List} of {@link User} entities with initialized cards, in no particular order.
+     */
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.cards WHERE u.id IN :ids")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    List<User> findAllWithCardsByIdIn(@Param("ids") Collection<UUID> ids);
+}
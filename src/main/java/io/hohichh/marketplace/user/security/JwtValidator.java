@@ -6,10 +6,14 @@ import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.List;
 
 
 @Component
@@ -44,4 +48,27 @@ public class JwtValidator {
                 .parseSignedClaims(token)
                 .getPayload();
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the authentication for a verified token: the subject is the user id and the
+     * {@code role} claim becomes a single {@code ROLE_} authority.
+     * Shared by the HTTP filter and the gRPC interceptor so both APIs authorize the same way.
+     */
+    public Authentication toAuthentication(Claims claims) {
+        String userId = claims.getSubject();
+        String role = claims.get("role", String.class);
+
+        List<SimpleGrantedAuthority> authorities = List.of();
+        if (role != null && !role.isEmpty()) {
+            String springSecurityRole =
+                    role.startsWith("ROLE_") ? role : "ROLE_" + role.toUpperCase();
+            authorities = List.of(new SimpleGrantedAuthority(springSecurityRole));
+        }
+
+        return new UsernamePasswordAuthenticationToken(
+                userId,
+                null,
+                authorities
+        );
+    }
+}
@@ -0,0 +1,94 @@
+package io.hohichh.marketplace.user.security;
+
+import io.hohichh.marketplace.user.config.RateLimitProperties.Limit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link RateLimiter} keeping the buckets in the memory of this node.
+ * <p>
+ * Buckets are spread over independent stripes. Taking a token is a map lookup and a compare-and-set
+ * on the bucket's timestamp, without locks. Full buckets hold no information, so each stripe drops them
+ * when it is next used after its sweep interval; a principal that stays idle costs no memory.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final AtomicLongArray nextSweep;
+    private final LongSupplier nanoTime;
+
+    public LocalRateLimiter(int stripes) {
+        this(stripes, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    LocalRateLimiter(int stripes, LongSupplier nanoTime) {
+        this.stripes = new ConcurrentHashMap[stripes];
+        this.nextSweep = new AtomicLongArray(stripes);
+        this.nanoTime = nanoTime;
+        long firstSweep = nanoTime.getAsLong() + SWEEP_INTERVAL_NANOS;
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ConcurrentHashMap<>();
+            this.nextSweep.set(i, firstSweep);
+        }
+    }
+
+    @Override
+    public long tryAcquire(String key, Limit limit) {
+        long now = nanoTime.getAsLong();
+        int stripe = stripeOf(key);
+        ConcurrentHashMap<String, AtomicLong> buckets = stripes[stripe];
+        sweepIfDue(stripe, buckets, now);
+
+        AtomicLong arrival = buckets.get(key);
+        if (arrival == null) {
+            AtomicLong created = new AtomicLong(now);
+            arrival = buckets.putIfAbsent(key, created);
+            if (arrival == null) {
+                arrival = created;
+            }
+        }
+
+        long emission = limit.emissionIntervalNanos();
+        long burst = limit.burstNanos();
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + emission;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> buckets : stripes) {
+            size += buckets.size();
+        }
+        return size;
+    }
+
+    private void sweepIfDue(int stripe, ConcurrentHashMap<String, AtomicLong> buckets, long now) {
+        long due = nextSweep.get(stripe);
+        if (now - due < 0 || !nextSweep.compareAndSet(stripe, due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        // a bucket whose arrival time has passed is full, which is the state of a new bucket
+        buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+    }
+
+    private int stripeOf(String key) {
+        int hash = key.hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7fffffff) % stripes.length;
+    }
+}
@@ -0,0 +1,163 @@
+package io.hohichh.marketplace.user.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.config.RateLimitProperties;
+import io.hohichh.marketplace.user.config.RateLimitProperties.Limit;
+import io.hohichh.marketplace.user.logging.LogRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of each authenticated principal.
+ * <p>
+ * Runs right after {@link JwtAuthenticationFilter}, so the principal is known, and before authorization
+ * and the controllers, so a rejected request costs one bucket check and never reaches the service layer.
+ * Rejections are answered with {@code 429 Too Many Requests} and a {@code Retry-After} header.
+ * Anonymous requests pass; they are rejected later unless the endpoint is public.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String DEFAULT_BUCKET = "default";
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final List<EndpointRule> endpointRules;
+    private final LogRateLimiter rejectionLogLimiter = new LogRateLimiter(10, Duration.ofSeconds(1));
+
+    public RateLimitFilter(RateLimitProperties properties, RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.endpointRules = properties.endpoints().stream()
+                .map(EndpointRule::new)
+                .toList();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String role = roleOf(auth);
+        String bucket = DEFAULT_BUCKET;
+        Limit limit = properties.defaultLimit();
+
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        EndpointRule rule = findRule(request.getMethod(), path, role);
+        if (rule != null) {
+            bucket = rule.name();
+            limit = rule.limit();
+        } else if (role != null && properties.roles().containsKey(role)) {
+            bucket = role;
+            limit = properties.roles().get(role);
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(bucket + ":" + auth.getName(), limit);
+        if (waitNanos > 0) {
+            reject(response, auth.getName(), bucket, waitNanos);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String roleOf(Authentication auth) {
+        String fallback = null;
+        for (GrantedAuthority authority : auth.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name == null || !name.startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+            String role = name.substring(ROLE_PREFIX.length());
+            if (properties.roles().containsKey(role)) {
+                return role;
+            }
+            if (fallback == null) {
+                fallback = role;
+            }
+        }
+        return fallback;
+    }
+
+    private EndpointRule findRule(String method, PathContainer path, String role) {
+        for (EndpointRule rule : endpointRules) {
+            if (rule.matches(method, path, role)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, String principal, String bucket, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+
+        long suppressed = rejectionLogLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("Rate limit {} exceeded by {} ({} similar suppressed)", bucket, principal, suppressed);
+        }
+
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS,
+                "Request rate limit exceeded. Retry in " + retryAfterSeconds + " s.");
+        problemDetail.setTitle("Too Many Requests");
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), problemDetail);
+    }
+
+    private record EndpointRule(String name, String method, PathPattern pattern, Set<String> roles, Limit limit) {
+
+        EndpointRule(RateLimitProperties.Endpoint endpoint) {
+            this(endpoint.name(),
+                    endpoint.method(),
+                    PathPatternParser.defaultInstance.parse(endpoint.path()),
+                    endpoint.roles(),
+                    endpoint.limit());
+        }
+
+        boolean matches(String requestMethod, PathContainer path, String role) {
+            return (method == null || method.isEmpty() || method.equalsIgnoreCase(requestMethod))
+                    && (roles.isEmpty() || roles.contains(role))
+                    && pattern.matches(path);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.hohichh.marketplace.user.security;
+
+import io.hohichh.marketplace.user.config.RateLimitProperties.Limit;
+
+/**
+ * Store of token buckets, one per key.
+ * <p>
+ * Implementations use the generic cell rate algorithm: a bucket is a single timestamp, the theoretical
+ * arrival time of the next request, which advances by one emission interval per permitted request.
+ * A request is rejected while that timestamp lies more than the burst ahead of now.
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one token from the bucket of the key.
+     *
+     * @param key   Identifies the bucket.
+     * @param limit Capacity and refill rate of the bucket.
+     * @return {@code 0} if the request is permitted, otherwise the nanoseconds until a token becomes available.
+     */
+    long tryAcquire(String key, Limit limit);
+}
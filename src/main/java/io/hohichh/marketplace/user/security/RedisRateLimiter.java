@@ -0,0 +1,65 @@
+package io.hohichh.marketplace.user.security;
+
+import io.hohichh.marketplace.user.config.RateLimitProperties.Limit;
+import io.hohichh.marketplace.user.logging.LogRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RateLimiter} keeping the buckets in Redis, so a limit holds across all nodes.
+ * <p>
+ * Each check is one script call that reads and advances the bucket atomically, using the Redis clock
+ * so the nodes' clocks need not agree. A bucket expires once it would be full again.
+ * If Redis is unavailable the node enforces the limits on its own until Redis is back.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    // KEYS[1]: bucket, ARGV[1]: emission interval in microseconds, ARGV[2]: burst in microseconds
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local arrival = tonumber(redis.call('GET', KEYS[1]) or now)
+            if arrival < now then arrival = now end
+            local next = arrival + tonumber(ARGV[1])
+            local wait = next - now - tonumber(ARGV[2])
+            if wait > 0 then return math.ceil(wait) end
+            redis.call('SET', KEYS[1], string.format('%.0f', next), 'PX', math.ceil((next - now) / 1000))
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String keyPrefix;
+    private final RateLimiter fallback;
+    private final LogRateLimiter failureLogLimiter = new LogRateLimiter(1, Duration.ofSeconds(10));
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, String keyPrefix, RateLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long tryAcquire(String key, Limit limit) {
+        try {
+            Long waitMicros = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(keyPrefix + key),
+                    Long.toString(TimeUnit.NANOSECONDS.toMicros(limit.emissionIntervalNanos())),
+                    Long.toString(TimeUnit.NANOSECONDS.toMicros(limit.burstNanos())));
+            return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+        } catch (RuntimeException e) {
+            long suppressed = failureLogLimiter.tryAcquire();
+            if (suppressed >= 0) {
+                logger.warn("Rate limit check in Redis failed, limiting on this node only: {} ({} similar suppressed)",
+                        e.getMessage(), suppressed);
+            }
+            return fallback.tryAcquire(key, limit);
+        }
+    }
+}
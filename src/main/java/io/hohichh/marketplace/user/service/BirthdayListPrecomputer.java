@@ -0,0 +1,101 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.mapper.UserMapper;
+import io.hohichh.marketplace.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.CronTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Precomputes the "users with birthday today" list so that the endpoint reads it from the cache
+ * instead of scanning the users table on the first request of a day.
+ * <p>
+ * Shortly before midnight (in the zone of the injected {@link Clock}) the list for the next day is
+ * written under its date key, matching the keys produced by {@code todayKeyGenerator}.
+ * On startup the list for the current day is written if it is not cached yet.
+ */
+@Component
+@ConditionalOnProperty(name = "application.cache.birthday-precompute.enabled", havingValue = "true", matchIfMissing = true)
+public class BirthdayListPrecomputer implements SchedulingConfigurer {
+
+    static final String CACHE_NAME = "usersWithBirthdayToday";
+
+    private static final Logger logger = LoggerFactory.getLogger(BirthdayListPrecomputer.class);
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final CacheManager cacheManager;
+    private final Clock clock;
+    private final String cron;
+
+    public BirthdayListPrecomputer(UserRepository userRepository,
+                                   UserMapper userMapper,
+                                   CacheManager cacheManager,
+                                   Clock clock,
+                                   ApplicationCacheProperties properties) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.cacheManager = cacheManager;
+        this.clock = clock;
+        this.cron = properties.birthdayPrecompute().cron();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addCronTask(new CronTask(this::precomputeNextDay, new CronTrigger(cron, clock.getZone())));
+    }
+
+    /**
+     * Writes the list of the day following the current one.
+     */
+    public void precomputeNextDay() {
+        precompute(LocalDate.now(clock).plusDays(1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void precomputeTodayIfAbsent() {
+        LocalDate today = LocalDate.now(clock);
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null && cache.get(today) == null) {
+            precompute(today);
+        }
+    }
+
+    /**
+     * Loads the users with a birthday on the given date and stores them under that date.
+     *
+     * @param date The day to precompute.
+     */
+    void precompute(LocalDate date) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            logger.debug("Cache {} is not available, skipping birthday precomputation", CACHE_NAME);
+            return;
+        }
+
+        try {
+            List<UserDto> users = userRepository.findUsersWithBirthDayToday(date).stream()
+                    .map(userMapper::toUserDto)
+                    .toList();
+            cache.put(date, users);
+            logger.info("Precomputed {} users with birthday on {}", users.size(), date);
+        } catch (RuntimeException e) {
+            logger.warn("Birthday precomputation for {} failed, the list will be loaded on demand", date, e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.config.CardPartitioningProperties;
+import io.hohichh.marketplace.user.model.CardInfo;
+import io.hohichh.marketplace.user.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.CronTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Keeps the yearly partitions of {@code card_info}, or of each of its hash partitions, in shape.
+ * <p>
+ * Partitions for the configured number of future years are created on startup and on every scheduled run,
+ * so new cards never fall into the default partition. Optionally, partitions whose cards all expired more
+ * than the retention period ago are detached, which keeps the live table and its indexes small.
+ * The work itself is done by the {@code create_card_info_partitions} and
+ * {@code detach_expired_card_info_partitions} database functions installed by Liquibase.
+ */
+@Component
+@EnableConfigurationProperties(CardPartitioningProperties.class)
+@ConditionalOnProperty(name = "application.partitioning.card-info.enabled", havingValue = "true", matchIfMissing = true)
+public class CardPartitionMaintainer implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CardPartitionMaintainer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final CardPartitioningProperties properties;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CardPartitionMaintainer(JdbcTemplate jdbcTemplate, Clock clock, CardPartitioningProperties properties,
+                                   EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.properties = properties;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addCronTask(new CronTask(this::maintain, new CronTrigger(properties.cron(), clock.getZone())));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintain() {
+        try {
+            createFuturePartitions();
+            if (properties.detachExpired()) {
+                detachExpiredPartitions();
+            }
+        } catch (DataAccessException e) {
+            logger.warn("card_info partition maintenance failed, will retry on the next run", e);
+        }
+    }
+
+    void createFuturePartitions() {
+        int currentYear = LocalDate.now(clock).getYear();
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT create_card_info_partitions(?, ?)",
+                Integer.class,
+                currentYear, currentYear + properties.yearsAhead());
+        logger.info("Created {} card_info partitions up to year {}", created, currentYear + properties.yearsAhead());
+    }
+
+    void detachExpiredPartitions() {
+        // a yearly partition is fully expired once the year after it has begun
+        LocalDate expiredBefore = LocalDate.now(clock)
+                .withDayOfYear(1)
+                .minusYears(properties.retentionYears());
+        Integer detached = jdbcTemplate.queryForObject(
+                "SELECT detach_expired_card_info_partitions(?, ?)",
+                Integer.class,
+                expiredBefore, properties.dropDetached());
+        logger.info("Detached {} card_info partitions expired before {}", detached, expiredBefore);
+
+        if (detached != null && detached > 0) {
+            // the cards left card_info behind Hibernate's back, so drop everything cached about cards
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(CardInfo.class);
+            cache.evictCollectionData(User.class.getName() + ".cards");
+            cache.evictQueryRegions();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.hohichh.marketplace.user.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Content-based entity tags for API representations.
+ * <p>
+ * The tag is a truncated SHA-256 of the representation's {@code toString()}. DTOs are records, whose
+ * string form covers every component, so equal content yields equal tags on every node without
+ * serializing the response body.
+ */
+public final class ETags {
+
+    private static final int TAG_BYTES = 16;
+
+    private ETags() {
+    }
+
+    /**
+     * @param representation The DTO returned to the client.
+     * @return A quoted strong entity tag, ready for the {@code ETag} header.
+     */
+    public static String of(Object representation) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(String.valueOf(representation).getBytes(StandardCharsets.UTF_8));
+            return '"' + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Arrays.copyOf(digest, TAG_BYTES)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Evaluates an {@code If-Match} header against the current tag.
+     *
+     * @param ifMatch    Header value; a comma-separated list of tags or {@code *}.
+     * @param currentTag Tag of the current representation.
+     * @return {@code true} if the header lists the current tag or is {@code *}.
+     */
+    public static boolean matches(String ifMatch, String currentTag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(currentTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,236 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.cache.BloomFilter;
+import io.hohichh.marketplace.user.config.ExistenceFilterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.CronTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Per-node Bloom filters over {@code users.email} and {@code card_info.number} that let uniqueness checks
+ * skip the database when a value has certainly never been stored.
+ * <p>
+ * The filters are built on startup and rebuilt on a schedule by streaming the column through a server-side
+ * cursor; the rebuild also forgets values that were deleted or changed since. Values written through this
+ * node are added once their transaction commits, including while a rebuild is running. Writes made by other
+ * nodes or outside the application are added when their cache invalidation notification arrives, and otherwise
+ * by the next rebuild. Until then a check can wrongly report "absent" for them; the unique constraints of the
+ * schema stay the final word in that case. Until a filter is built, every check goes to the database.
+ */
+@Component
+@EnableConfigurationProperties(ExistenceFilterProperties.class)
+public class ExistenceFilters implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExistenceFilters.class);
+
+    private final ExistenceFilterProperties properties;
+    private final Clock clock;
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final TrackedFilter emails;
+    private final TrackedFilter cardNumbers;
+
+    public ExistenceFilters(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            Clock clock,
+                            ExistenceFilterProperties properties) {
+        this.properties = properties;
+        this.clock = clock;
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(properties.fetchSize());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.emails = new TrackedFilter("email", "users", "email", properties.expectedEmails(), meterRegistry);
+        this.cardNumbers = new TrackedFilter("card_number", "card_info", "number",
+                properties.expectedCardNumbers(), meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.enabled()) {
+            registrar.addCronTask(new CronTask(this::rebuild, new CronTrigger(properties.cron(), clock.getZone())));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (properties.enabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Rebuilds both filters from the database. A filter that fails to rebuild keeps its previous contents.
+     */
+    public synchronized void rebuild() {
+        rebuild(emails);
+        rebuild(cardNumbers);
+    }
+
+    /**
+     * @param email The email to check.
+     * @return {@code true} if no user of this node's view has the email, so the database need not be asked.
+     */
+    public boolean emailDefinitelyAbsent(String email) {
+        return emails.definitelyAbsent(email);
+    }
+
+    /**
+     * @param number The card number to check.
+     * @return {@code true} if no card of this node's view has the number, so the database need not be asked.
+     */
+    public boolean cardNumberDefinitelyAbsent(String number) {
+        return cardNumbers.definitelyAbsent(number);
+    }
+
+    /**
+     * Adds an email written by the current transaction once it commits.
+     */
+    public void recordEmail(String email) {
+        afterCommit(() -> emails.put(email));
+    }
+
+    /**
+     * Adds a card number written by the current transaction once it commits.
+     */
+    public void recordCardNumber(String number) {
+        afterCommit(() -> cardNumbers.put(number));
+    }
+
+    private void rebuild(TrackedFilter filter) {
+        try {
+            Long rows = cursorJdbcTemplate.queryForObject("SELECT count(*) FROM " + filter.table, Long.class);
+            long insertions = Math.max(filter.minimumInsertions,
+                    (long) Math.ceil((rows == null ? 0 : rows) * properties.growthFactor()));
+            BloomFilter rebuilt = new BloomFilter(insertions, properties.falsePositiveRate());
+
+            // values committed from now on go to the new filter too, so none are lost between the scan and the swap
+            filter.building = rebuilt;
+            readOnlyTransaction.executeWithoutResult(status -> cursorJdbcTemplate.query(
+                    "SELECT " + filter.column + " FROM " + filter.table,
+                    rs -> {
+                        String value = rs.getString(1);
+                        if (value != null) {
+                            rebuilt.put(value);
+                        }
+                    }));
+            filter.active = rebuilt;
+
+            logger.info("Built {} filter from {} rows: {} bytes, estimated false-positive rate {}",
+                    filter.name, rows, rebuilt.memoryBytes(), rebuilt.expectedFalsePositiveRate());
+        } catch (DataAccessException e) {
+            logger.warn("Rebuilding the {} filter failed, keeping the previous one", filter.name, e);
+        } finally {
+            filter.building = null;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * The filter of one column together with the one being rebuilt and its meters.
+     */
+    private static final class TrackedFilter {
+
+        private final String name;
+        private final String table;
+        private final String column;
+        private final long minimumInsertions;
+
+        private final Counter absent;
+        private final Counter maybePresent;
+        private final Counter notReady;
+
+        private volatile BloomFilter active;
+        private volatile BloomFilter building;
+
+        private TrackedFilter(String name, String table, String column, long minimumInsertions,
+                              MeterRegistry meterRegistry) {
+            this.name = name;
+            this.table = table;
+            this.column = column;
+            this.minimumInsertions = minimumInsertions;
+
+            Gauge.builder("existence.filter.memory", this, f -> f.active == null ? 0 : f.active.memoryBytes())
+                    .description("Size of the bit array of the filter")
+                    .baseUnit("bytes")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            Gauge.builder("existence.filter.false.positive.rate", this,
+                            f -> f.active == null ? 1 : f.active.expectedFalsePositiveRate())
+                    .description("Estimated share of never-stored values the filter reports as possibly present")
+                    .tag("filter", name)
+                    .register(meterRegistry);
+            this.absent = checks(meterRegistry, name, "absent");
+            this.maybePresent = checks(meterRegistry, name, "maybe_present");
+            this.notReady = checks(meterRegistry, name, "not_ready");
+        }
+
+        boolean definitelyAbsent(String value) {
+            BloomFilter filter = active;
+            if (filter == null) {
+                notReady.increment();
+                return false;
+            }
+            if (filter.mightContain(value)) {
+                maybePresent.increment();
+                return false;
+            }
+            absent.increment();
+            return true;
+        }
+
+        void put(String value) {
+            // read the rebuilt filter first: once it is gone, it is the active one
+            BloomFilter next = building;
+            if (next != null) {
+                next.put(value);
+            }
+            BloomFilter current = active;
+            if (current != null) {
+                current.put(value);
+            }
+        }
+
+        private static Counter checks(MeterRegistry meterRegistry, String name, String result) {
+            return Counter.builder("existence.filter.checks")
+                    .description("Uniqueness checks answered by the filter")
+                    .tag("filter", name)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.dto.UserChangeDto;
+import io.hohichh.marketplace.user.dto.UserChangesDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves the users created, updated or deleted since a cursor, so mirrors can pull deltas instead of
+ * re-reading all users.
+ * <p>
+ * Rows are stamped by database triggers with the id of the transaction that wrote them (see
+ * {@code 006-users-change-feed.xml}) and returned in (transaction id, user id) order. Only transactions
+ * older than the oldest one still running are served: any later write gets a larger transaction id, so it
+ * lands after every cursor already handed out. A long-running transaction therefore delays the feed but
+ * cannot make it skip a change. A user updated again moves to the end of the feed; mirrors apply entries as
+ * upserts and may see a user more than once.
+ */
+@Service
+public class UserChangeFeedService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeedService.class);
+
+    private static final String CHANGES_QUERY =
+            "WITH horizon AS (SELECT pg_snapshot_xmin(pg_current_snapshot()) AS xmin) " +
+            "SELECT c.change_xid::text AS change_xid, c.id, c.changed_at, c.deleted, " +
+            "c.name, c.surname, c.birth_date, c.email " +
+            "FROM (" +
+            "(SELECT u.change_xid, u.id, u.updated_at AS changed_at, false AS deleted, " +
+            "u.name, u.surname, u.birth_date, u.email " +
+            "FROM users u " +
+            "WHERE (u.change_xid, u.id) > (CAST(? AS xid8), ?) AND u.change_xid < (SELECT xmin FROM horizon) " +
+            "ORDER BY u.change_xid, u.id LIMIT ?) " +
+            "UNION ALL " +
+            "(SELECT t.change_xid, t.user_id, t.deleted_at, true, NULL, NULL, NULL, NULL " +
+            "FROM user_tombstones t " +
+            "WHERE (t.change_xid, t.user_id) > (CAST(? AS xid8), ?) AND t.change_xid < (SELECT xmin FROM horizon) " +
+            "ORDER BY t.change_xid, t.user_id LIMIT ?)" +
+            ") c " +
+            "ORDER BY c.change_xid, c.id " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserChangeFeedService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param cursor The {@code nextCursor} of the previous page, or {@code null} to start from the beginning.
+     * @param limit  The maximum number of changes to return, between 1 and {@value #MAX_LIMIT}.
+     * @return The changes after the cursor, oldest first.
+     * @throws InvalidRequestException if the cursor was not issued by this feed or the limit is out of range.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
+    public UserChangesDto getChanges(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidRequestException("Limit must be between 1 and %s, got %s.", MAX_LIMIT, limit);
+        }
+        Cursor after = cursor == null || cursor.isBlank() ? Cursor.START : Cursor.decode(cursor);
+
+        // one more row than requested tells whether another page follows
+        List<Change> changes = jdbcTemplate.query(CHANGES_QUERY, UserChangeFeedService::mapChange,
+                Long.toString(after.xid()), after.id(), limit + 1,
+                Long.toString(after.xid()), after.id(), limit + 1,
+                limit + 1);
+
+        boolean hasMore = changes.size() > limit;
+        List<Change> page = hasMore ? changes.subList(0, limit) : changes;
+        String nextCursor = page.isEmpty() ? after.encode() : page.get(page.size() - 1).cursor().encode();
+
+        logger.debug("Returning {} user changes after cursor {}", page.size(), after);
+        return new UserChangesDto(page.stream().map(Change::dto).toList(), nextCursor, hasMore);
+    }
+
+    private static Change mapChange(ResultSet rs, int rowNum) throws SQLException {
+        UUID id = rs.getObject("id", UUID.class);
+        boolean deleted = rs.getBoolean("deleted");
+        UserDto user = null;
+        if (!deleted) {
+            Date birthDate = rs.getDate("birth_date");
+            LocalDate birth = birthDate == null ? null : birthDate.toLocalDate();
+            user = new UserDto(id, rs.getString("name"), rs.getString("surname"), birth, rs.getString("email"));
+        }
+        UserChangeDto dto = new UserChangeDto(id, deleted, rs.getTimestamp("changed_at").toInstant(), user);
+        return new Change(new Cursor(Long.parseLong(rs.getString("change_xid")), id), dto);
+    }
+
+    private record Change(Cursor cursor, UserChangeDto dto) {
+    }
+
+    /**
+     * Position in the feed: the transaction id and user id of the last change returned.
+     * Clients receive it as an opaque base64url string.
+     */
+    record Cursor(long xid, UUID id) {
+
+        static final Cursor START = new Cursor(0, new UUID(0, 0));
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((xid + ":" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                long xid = Long.parseLong(decoded.substring(0, separator));
+                if (xid < 0) {
+                    throw new IllegalArgumentException("Negative transaction id " + xid);
+                }
+                return new Cursor(xid, UUID.fromString(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new InvalidRequestException("Invalid cursor: %s", cursor);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.hohichh.marketplace.user.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats of the user export.
+ */
+public enum UserExportFormat {
+
+    /** One JSON object per user and line, cards nested. */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /** One row per card; users without cards get one row with empty card columns. */
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    UserExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
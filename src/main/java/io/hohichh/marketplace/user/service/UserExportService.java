@@ -0,0 +1,159 @@
+package io.hohichh.marketplace.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams all users with their cards as gzip-compressed NDJSON or CSV.
+ * <p>
+ * Rows are read through a forward-only JDBC cursor with a fixed fetch size inside a read-only
+ * transaction (required for PostgreSQL to use a server-side cursor), grouped by user and written
+ * to the response as they arrive. Memory use therefore depends on the fetch size, not on the
+ * number of users.
+ */
+@Service
+public class UserExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserExportService.class);
+
+    private static final String EXPORT_QUERY =
+            "SELECT u.id, u.name, u.surname, u.birth_date, u.email, " +
+            "c.id AS card_id, c.number, c.holder, c.expiration_date " +
+            "FROM users u LEFT JOIN card_info c ON c.user_id = u.id " +
+            "ORDER BY u.id, c.id";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate cursorJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public UserExportService(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${application.export.fetch-size:1000}") int fetchSize) {
+        this.cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        this.cursorJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Authorizes the export on the calling thread and returns the body that performs it.
+     * Running the check here rather than inside the body ensures a rejected request gets a 403
+     * before any part of the response is committed.
+     *
+     * @param format The output format.
+     * @return A response body writing the gzip-compressed export.
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    public StreamingResponseBody exportUsers(UserExportFormat format) {
+        return outputStream -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+
+            Long exported = readOnlyTransaction.execute(status -> writeUsers(new UserExportWriter(format, writer, objectMapper)));
+
+            writer.flush();
+            gzip.finish();
+            logger.info("Exported {} users as {}", exported, format);
+        };
+    }
+
+    private long writeUsers(UserExportWriter exportWriter) {
+        try {
+            exportWriter.writeHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        UserAccumulator accumulator = new UserAccumulator(exportWriter);
+        cursorJdbcTemplate.query(EXPORT_QUERY, accumulator::accept);
+        accumulator.flush();
+        return accumulator.exported;
+    }
+
+    /**
+     * Collects the rows of one user and writes them once the next user starts.
+     */
+    private static final class UserAccumulator {
+
+        private final UserExportWriter exportWriter;
+
+        private UUID id;
+        private String name;
+        private String surname;
+        private LocalDate birthDate;
+        private String email;
+        private List<CardInfoDto> cards = new ArrayList<>();
+        private long exported;
+
+        private UserAccumulator(UserExportWriter exportWriter) {
+            this.exportWriter = exportWriter;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            UUID rowUserId = rs.getObject("id", UUID.class);
+            if (!rowUserId.equals(id)) {
+                flush();
+                id = rowUserId;
+                name = rs.getString("name");
+                surname = rs.getString("surname");
+                Date birth = rs.getDate("birth_date");
+                birthDate = birth == null ? null : birth.toLocalDate();
+                email = rs.getString("email");
+            }
+
+            UUID cardId = rs.getObject("card_id", UUID.class);
+            if (cardId != null) {
+                cards.add(new CardInfoDto(
+                        cardId,
+                        id,
+                        rs.getString("number"),
+                        rs.getString("holder"),
+                        rs.getDate("expiration_date").toLocalDate()));
+            }
+        }
+
+        void flush() {
+            if (id == null) {
+                return;
+            }
+            try {
+                exportWriter.write(new UserWithCardsDto(id, name, surname, birthDate, email, cards));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            exported++;
+            id = null;
+            cards = new ArrayList<>();
+        }
+    }
+}
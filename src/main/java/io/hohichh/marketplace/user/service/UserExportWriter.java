@@ -0,0 +1,87 @@
+package io.hohichh.marketplace.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Writes exported users one at a time, so no more than a single user is held in memory.
+ */
+class UserExportWriter {
+
+    private static final String CSV_HEADER =
+            "user_id,name,surname,birth_date,email,card_id,card_number,card_holder,card_expiration_date";
+
+    private final UserExportFormat format;
+    private final Writer out;
+    private final ObjectMapper objectMapper;
+
+    UserExportWriter(UserExportFormat format, Writer out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.out = out;
+        this.objectMapper = objectMapper;
+    }
+
+    void writeHeader() throws IOException {
+        if (format == UserExportFormat.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+    }
+
+    void write(UserWithCardsDto user) throws IOException {
+        switch (format) {
+            case NDJSON -> {
+                out.write(objectMapper.writeValueAsString(user));
+                out.write('\n');
+            }
+            case CSV -> {
+                if (user.cards().isEmpty()) {
+                    writeCsvRow(user, null);
+                }
+                for (CardInfoDto card : user.cards()) {
+                    writeCsvRow(user, card);
+                }
+            }
+        }
+    }
+
+    private void writeCsvRow(UserWithCardsDto user, CardInfoDto card) throws IOException {
+        out.write(csv(user.id()));
+        out.write(',');
+        out.write(csv(user.name()));
+        out.write(',');
+        out.write(csv(user.surname()));
+        out.write(',');
+        out.write(csv(user.birthDate()));
+        out.write(',');
+        out.write(csv(user.email()));
+        out.write(',');
+        out.write(csv(card == null ? null : card.id()));
+        out.write(',');
+        out.write(csv(card == null ? null : card.cardNumber()));
+        out.write(',');
+        out.write(csv(card == null ? null : card.cardHolderName()));
+        out.write(',');
+        out.write(csv(card == null ? null : card.expirationDate()));
+        out.write('\n');
+    }
+
+    /**
+     * Formats a CSV field according to RFC 4180: fields containing separators, quotes or line breaks are quoted.
+     */
+    static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = Objects.toString(value);
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
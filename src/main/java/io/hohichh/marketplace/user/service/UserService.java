@@ -6,6 +6,7 @@ package io.hohichh.marketplace.user.service;
 
 import io.hohichh.marketplace.user.dto.*;
 import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.hohichh.marketplace.user.exception.PreconditionFailedException;
 import org.springframework.data.crossstore.ChangeSetPersister.NotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -39,11 +40,16 @@ public interface UserService {
     /**
      * Updates an existing user with the provided data.
      *
-     * @param id   The UUID of the user to update.
-     * @param user DTO containing the updated user information.
+     * @param id      The UUID of the user to update.
+     * @param user    DTO containing the updated user information.
+     * @param ifMatch The If-Match header of the request, or null for an unconditional update. When present it is
+     *                compared with the ETag of the user's current representation before anything is changed.
      * @return The updated UserDto.
+     * @throws PreconditionFailedException if the ETag does not match, i.e. the user was modified since the
+     *                                     client read it. Both this and a lost version check on save are
+     *                                     answered with 412 (Precondition Failed).
      */
-    UserDto updateUser(UUID id, NewUserDto user);
+    UserDto updateUser(UUID id, NewUserDto user, String ifMatch);
 
     /**
      * Retrieves a user and their associated cards by the user's unique identifier.
@@ -54,6 +60,15 @@ public interface UserService {
      */
     UserWithCardsDto getUserById(UUID id);
 
+    /**
+     * Retrieves several users and their associated cards by their unique identifiers.
+     *
+     * @param ids The UUIDs of the users to retrieve. Duplicates are looked up once.
+     * @return The users found, in the order their IDs first appear in {@code ids}.
+     *         IDs without a matching user are skipped, so the list may be shorter than {@code ids}.
+     */
+    List<UserWithCardsDto> getUsersByIds(List<UUID> ids);
+
     /**
      * Finds a user and their associated cards by their email address.
      *
@@ -62,6 +77,14 @@ public interface UserService {
      */
     Optional<UserWithCardsDto> getUserByEmail(String email);
 
+    /**
+     * Checks whether a user exists without loading it.
+     *
+     * @param id The UUID of the user.
+     * @return {@code true} if a user with this id exists.
+     */
+    boolean userExists(UUID id);
+
     /**
      * Retrieves a paginated list of all users.
      *
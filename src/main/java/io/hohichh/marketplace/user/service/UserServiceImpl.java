@@ -5,11 +5,16 @@
 
 package io.hohichh.marketplace.user.service;
 
+import io.hohichh.marketplace.user.cache.BirthdayListCache;
+import io.hohichh.marketplace.user.cache.CacheBatchOperations;
+import io.hohichh.marketplace.user.cache.UserCardsCache;
 import io.hohichh.marketplace.user.dto.*;
 import io.hohichh.marketplace.user.dto.registration.UserCredsDto;
 import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.hohichh.marketplace.user.exception.PreconditionFailedException;
 import io.hohichh.marketplace.user.exception.ResourceCreationConflictException;
 import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
+import io.hohichh.marketplace.user.logging.LogSampling;
 import io.hohichh.marketplace.user.mapper.CardInfoMapper;
 import io.hohichh.marketplace.user.mapper.UserMapper;
 import io.hohichh.marketplace.user.model.CardInfo;
@@ -22,6 +27,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PostAuthorize;
@@ -31,7 +38,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -49,19 +59,31 @@ public class UserServiceImpl implements UserService {
     private final UserMapper userMapper;
     private final CardInfoMapper cardInfoMapper;
 
+    // only registration talks to the auth service; a lazy proxy keeps the Feign client out of startup
+    @Lazy
     private final AuthServiceClient authClient;
 
+    private final CacheBatchOperations cacheBatchOperations;
+
+    private final UserCardsCache userCardsCache;
+
+    private final BirthdayListCache birthdayListCache;
+
+    private final ExistenceFilters existenceFilters;
+
     private final Clock clock;
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
+    private static final String USERS_CACHE = "users";
+
     private static final String USER_NOT_FOUND_MSG = "User with id %s not found.";
+    private static final String USER_MODIFIED_MSG = "User with id %s was modified by another request.";
     private static final String USER_EMAIL_EXISTS_MSG = "Email %s is already in use by another user.";
     private static final String CARD_NOT_FOUND_MSG = "Card with id %s not found.";
     private static final String CARD_NUMBER_EXISTS_MSD = "Card with number %s already exists.";
 
 
     @Transactional
-    @CacheEvict(value = "usersWithBirthdayToday", allEntries = true)
     @Override
     public UserDto registerUser(NewUserCredsDto newUser) {
         logger.debug("Attempting to register user with email: {}", newUser.email());
@@ -87,24 +109,30 @@ public class UserServiceImpl implements UserService {
 
     /**
      * {@inheritDoc}
-     * Checks if a user with the same email already exists before creation.
+     * Checks if a user with the same email already exists before creation;
+     * the query is skipped when the email filter proves the email was never stored. The user is flushed
+     * right away, so an email stored by another node the filter has not seen yet is rejected by the unique
+     * constraint before this method returns.
+     * Today's and tomorrow's birthday lists are evicted only if the user is born on that day.
      *
      * @throws ResourceCreationConflictException if the email is already in use.
      */
     @Override
     @Transactional
-    @CacheEvict(value = "usersWithBirthdayToday", allEntries = true)
     public UserDto createUser(NewUserDto user) {
         logger.debug("Attempting to create user with email: {}", user.email());
 
         String email = user.email();
-        if (userRepository.findByEmail(email).isPresent()) {
-            logger.error("User creation failed: email {} already exists", email);
-            throw new ResourceCreationConflictException(String.format(USER_EMAIL_EXISTS_MSG, email));
+        if (!existenceFilters.emailDefinitelyAbsent(email) && userRepository.findByEmail(email).isPresent()) {
+            logger.debug("User creation failed: email {} already exists", email);
+            throw new ResourceCreationConflictException(USER_EMAIL_EXISTS_MSG, email);
         }
 
-        User savedUser = userRepository.save(
+        // flushed so that an email the filter has not seen yet fails here, before a caller acts on the new id
+        User savedUser = userRepository.saveAndFlush(
                 userMapper.toUser(user));
+        existenceFilters.recordEmail(email);
+        birthdayListCache.evictListsIncluding(savedUser.getBirthDate());
 
         logger.info("User with id: {} saved successfully", savedUser.getId());
         return userMapper.toUserDto(savedUser);
@@ -112,55 +140,76 @@ public class UserServiceImpl implements UserService {
 
     /**
      * {@inheritDoc}
-     * Checks if the user exists before attempting deletion.
+     * Checks if the user exists before attempting deletion. The user's cards go with it,
+     * so its {@code userCards} entry and the expired card list are evicted too, as are the birthday
+     * lists of today and tomorrow if the user is born on that day.
      *
      * @throws ResourceNotFoundException if the user with the specified ID is not found.
      */
     @Override
     @PreAuthorize("(hasRole('USER') and #id.toString() == authentication.name) or hasRole('ADMIN')")
     @Transactional
-    @CacheEvict(value = {"users", "usersWithBirthdayToday"}, key = "#id", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = {"users", UserCardsCache.USER_CARDS_CACHE}, key = "#id"),
+            @CacheEvict(value = "expiredCards", allEntries = true)
+    })
     public void deleteUser(UUID id) {
         logger.debug("Attempting to delete user with id: {}", id);
 
-        if (!userRepository.existsById(id)) {
-            logger.error("User deletion failed: user with id {} not found", id);
-            throw new ResourceNotFoundException(String.format(USER_NOT_FOUND_MSG, id));
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.debug("User deletion failed: user with id {} not found", id);
+                    return new ResourceNotFoundException(USER_NOT_FOUND_MSG, id);
+                });
 
         logger.info("User with id: {} deleted successfully", id);
-        userRepository.deleteById(id);
+        userRepository.delete(user);
+        birthdayListCache.evictListsIncluding(user.getBirthDate());
     }
 
     /**
      * {@inheritDoc}
      * Finds the existing user, validates the new email for uniqueness (if changed), and applies updates.
+     * If an {@code If-Match} value is given, it must match the ETag of the user's current representation;
+     * a concurrent update committed after that check is detected by the entity's version.
      *
      * @throws ResourceNotFoundException       if the user with the specified ID is not found.
+     * @throws PreconditionFailedException     if the user changed since the client read it.
      * @throws ResourceCreationConflictException if the new email is already in use by another user.
      */
     @Override
     @PreAuthorize("(hasRole('USER') and #id.toString() == authentication.name) or hasRole('ADMIN')")
     @Transactional
-    @CacheEvict(value = {"users", "usersWithBirthdayToday"}, key = "#id", allEntries = true)
-    public UserDto updateUser(UUID id, NewUserDto userToUpd) {
+    @CacheEvict(value = "users", key = "#id")
+    public UserDto updateUser(UUID id, NewUserDto userToUpd, String ifMatch) {
         logger.debug("Attempting to update user with id: {}", id);
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> {
-                    logger.error("User update failed: user with id {} not found", id);
-                    return new ResourceNotFoundException(String.format(USER_NOT_FOUND_MSG, id));
+                    logger.debug("User update failed: user with id {} not found", id);
+                    return new ResourceNotFoundException(USER_NOT_FOUND_MSG, id);
                 });
 
+        if (ifMatch != null
+                && !ETags.matches(ifMatch, ETags.of(userMapper.toUserWithCardsDto(existingUser)))) {
+            logger.debug("User update rejected: user with id {} was modified since it was read", id);
+            throw new PreconditionFailedException(USER_MODIFIED_MSG, id);
+        }
+
         String newEmail = userToUpd.email();
-        Optional<User> userWithSameEmail = userRepository.findByEmail(newEmail);
-        if (userWithSameEmail.isPresent() && !userWithSameEmail.get().getId().equals(id)) {
-            logger.error("User update failed: email {} already in use by another user", newEmail);
-            throw new ResourceCreationConflictException(String.format(USER_EMAIL_EXISTS_MSG, newEmail));
+        if (!existenceFilters.emailDefinitelyAbsent(newEmail)) {
+            Optional<User> userWithSameEmail = userRepository.findByEmail(newEmail);
+            if (userWithSameEmail.isPresent() && !userWithSameEmail.get().getId().equals(id)) {
+                logger.debug("User update failed: email {} already in use by another user", newEmail);
+                throw new ResourceCreationConflictException(USER_EMAIL_EXISTS_MSG, newEmail);
+            }
         }
 
+        LocalDate previousBirthDate = existingUser.getBirthDate();
         userMapper.updateUserFromDto(userToUpd, existingUser);
 
         User updatedUser = userRepository.save(existingUser);
+        existenceFilters.recordEmail(newEmail);
+        birthdayListCache.evictListsIncluding(previousBirthDate, updatedUser.getBirthDate());
 
         logger.info("User with id: {} updated successfully", id);
         return userMapper.toUserDto(updatedUser);
@@ -168,28 +217,63 @@ public class UserServiceImpl implements UserService {
 
     /**
      * {@inheritDoc}
-     * Retrieves the user and their associated cards from the repositories.
+     * Retrieves the user and their associated cards with a single query that bypasses the second-level cache,
+     * so a stale entry of this node does not end up in the shared cache.
+     * Loads are synchronized on the cache, so concurrent misses for the same id run a single load.
      *
      * @throws ResourceNotFoundException if the user with the specified ID is not found.
      */
     @Override
     @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and #id.toString() == authentication.name)")
     @Transactional(readOnly = true)
-    @Cacheable(value = "users", key = "#id")
+    @Cacheable(value = "users", key = "#id", sync = true)
     public UserWithCardsDto getUserById(UUID id) {
         logger.debug("Fetching user with id: {}", id);
-        User user = userRepository.findById(id)
+        User user = userRepository.findWithCardsById(id)
                 .orElseThrow(() -> {
-                    logger.error("User fetch failed: user with id {} not found", id);
-                    return new ResourceNotFoundException(String.format(USER_NOT_FOUND_MSG, id));
+                    logger.debug("User fetch failed: user with id {} not found", id);
+                    return new ResourceNotFoundException(USER_NOT_FOUND_MSG, id);
                 });
 
-        cardRepository.findByUserId(id);
-
-        logger.info("User with id: {} fetched successfully", id);
+        logger.info(LogSampling.SAMPLED, "User with id: {} fetched successfully", id);
         return userMapper.toUserWithCardsDto(user);
     }
 
+    /**
+     * {@inheritDoc}
+     * Reads all ids from the {@code users} cache at once, loads the misses with their cards in a single query
+     * and writes them back in one batch. A user may only look up their own id; any other id rejects the request.
+     */
+    @Override
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and #ids.?[#this.toString() != authentication.name].isEmpty())")
+    @Transactional(readOnly = true)
+    public List<UserWithCardsDto> getUsersByIds(List<UUID> ids) {
+        logger.debug("Fetching {} users by id", ids.size());
+        List<UUID> distinctIds = ids.stream().distinct().toList();
+
+        Map<UUID, UserWithCardsDto> users = new HashMap<>(
+                cacheBatchOperations.getAll(USERS_CACHE, distinctIds, UserWithCardsDto.class));
+
+        List<UUID> misses = distinctIds.stream()
+                .filter(id -> !users.containsKey(id))
+                .toList();
+        if (!misses.isEmpty()) {
+            Map<UUID, UserWithCardsDto> loaded = new HashMap<>();
+            for (User user : userRepository.findAllWithCardsByIdIn(misses)) {
+                loaded.put(user.getId(), userMapper.toUserWithCardsDto(user));
+            }
+            cacheBatchOperations.putAll(USERS_CACHE, loaded);
+            users.putAll(loaded);
+        }
+
+        logger.info(LogSampling.SAMPLED, "Fetched {} of {} requested users ({} from cache)",
+                users.size(), distinctIds.size(), distinctIds.size() - misses.size());
+        return distinctIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     /**
      * {@inheritDoc}
      * Finds the user by email and, if found, fetches their associated cards.
@@ -208,11 +292,25 @@ public class UserServiceImpl implements UserService {
         }
         cardRepository.findByUserId(user.getId());
 
-        logger.info("User with id: {} fetched successfully by email", user.getId());
+        logger.info(LogSampling.SAMPLED, "User with id: {} fetched successfully by email", user.getId());
         return Optional.of(
                 userMapper.toUserWithCardsDto(user));
     }
 
+    /**
+     * {@inheritDoc}
+     * Answers from the {@code users} cache when the user is cached, otherwise with an existence query.
+     */
+    @Override
+    @PreAuthorize("hasRole('ADMIN') or (hasRole('USER') and #id.toString() == authentication.name)")
+    @Transactional(readOnly = true)
+    public boolean userExists(UUID id) {
+        if (!cacheBatchOperations.getAll(USERS_CACHE, List.of(id), UserWithCardsDto.class).isEmpty()) {
+            return true;
+        }
+        return userRepository.existsById(id);
+    }
+
     /**
      * {@inheritDoc}
      * Maps the resulting Page of User entities to a Page of UserDto.
@@ -230,24 +328,25 @@ public class UserServiceImpl implements UserService {
 
         Page<User> userPage = userRepository.findAll(pageable);
 
-        logger.info("Fetched {} users", userPage.getNumberOfElements());
+        logger.info(LogSampling.SAMPLED, "Fetched {} users", userPage.getNumberOfElements());
         return userPage.map(userMapper::toUserDto);
     }
 
     /**
      * {@inheritDoc}
      * Delegates to the repository to find users with a matching birthday and maps the results.
+     * The result is cached under today's date and is normally precomputed by {@link BirthdayListPrecomputer}.
      */
     @Override
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMIN')")
-    @Cacheable(value = "usersWithBirthdayToday")
+    @Cacheable(value = "usersWithBirthdayToday", keyGenerator = "todayKeyGenerator", sync = true)
     public List<UserDto> getUsersWithBirthdayToday() {
         logger.debug("Fetching users with birthday today");
         LocalDate today = LocalDate.now(clock);
         List<User> users = userRepository.findUsersWithBirthDayToday(today);
 
-        logger.info("Fetched {} users with birthday today", users.size());
+        logger.info(LogSampling.SAMPLED, "Fetched {} users with birthday today", users.size());
         return users.stream().map(userMapper::toUserDto).toList();
     }
 
@@ -268,14 +367,15 @@ public class UserServiceImpl implements UserService {
 
         Page<User> userPage = userRepository.findBySearchTerm(searchTerm, pageable);
 
-        logger.info("Found {} users by search term successfully", userPage.getNumberOfElements());
+        logger.info(LogSampling.SAMPLED, "Found {} users by search term successfully", userPage.getNumberOfElements());
         return userPage.map(userMapper::toUserDto);
     }
 
     /**
      * {@inheritDoc}
      * Finds the user, checks if the card number already exists for another user,
-     * and then associates the new card with the user.
+     * and then associates the new card with the user. The owner's {@code users} and {@code userCards}
+     * entries are evicted once the card is committed.
      *
      * @throws ResourceNotFoundException       if the user with the specified ID is not found.
      * @throws ResourceCreationConflictException if the card number is already associated with another user.
@@ -283,19 +383,18 @@ public class UserServiceImpl implements UserService {
     @Override
     @PreAuthorize("(hasRole('USER') and #userId.toString() == authentication.name) or hasRole('ADMIN')")
     @Transactional
-    @CacheEvict(value = "users", key = "#userId")
     public CardInfoDto createCardForUser(UUID userId, NewCardInfoDto newCard) {
         logger.debug("Attempting to create card for user with id: {}", userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> {
-                    logger.error("Card creation failed: user with id {} not found", userId);
-                    return new ResourceNotFoundException(String.format(USER_NOT_FOUND_MSG, userId));
+                    logger.debug("Card creation failed: user with id {} not found", userId);
+                    return new ResourceNotFoundException(USER_NOT_FOUND_MSG, userId);
                 });
 
         String number = newCard.cardNumber();
-        if (cardRepository.findByNumber(number).isPresent()) {
-            logger.error("Card creation failed: card with number {} already exists", number);
-            throw new ResourceCreationConflictException(String.format(CARD_NUMBER_EXISTS_MSD, number));
+        if (!existenceFilters.cardNumberDefinitelyAbsent(number) && cardRepository.findByNumber(number).isPresent()) {
+            logger.debug("Card creation failed: card with number {} already exists", number);
+            throw new ResourceCreationConflictException(CARD_NUMBER_EXISTS_MSD, number);
         }
 
         CardInfo cardInfoEntity = cardInfoMapper.toCardInfo(newCard);
@@ -303,6 +402,8 @@ public class UserServiceImpl implements UserService {
         user.getCards().add(cardInfoEntity);
 
         CardInfo savedCard = cardRepository.save(cardInfoEntity);
+        existenceFilters.recordCardNumber(number);
+        userCardsCache.evictOwner(userId);
 
         logger.info("Card with id: {} created successfully for user with id: {}", savedCard.getId(), userId);
         return cardInfoMapper.toCardInfoDto(savedCard);
@@ -310,7 +411,8 @@ public class UserServiceImpl implements UserService {
 
     /**
      * {@inheritDoc}
-     * Checks if the card exists before attempting deletion.
+     * Loads the card to learn its owner, deletes it and evicts the owner's {@code users} and {@code userCards}
+     * entries once the deletion commits.
      *
      * @throws ResourceNotFoundException if the card with the specified ID is not found.
      */
@@ -321,17 +423,22 @@ public class UserServiceImpl implements UserService {
     public void deleteCard(UUID cardId) {
         logger.debug("Attempting to delete card with id: {}", cardId);
 
-        if (!cardRepository.existsById(cardId)) {
-            logger.error("Card deletion failed: card with id {} not found", cardId);
-            throw new ResourceNotFoundException(String.format(CARD_NOT_FOUND_MSG, cardId));
-        }
+        CardInfo card = cardRepository.findById(cardId)
+                .orElseThrow(() -> {
+                    logger.debug("Card deletion failed: card with id {} not found", cardId);
+                    return new ResourceNotFoundException(CARD_NOT_FOUND_MSG, cardId);
+                });
+        UUID ownerId = card.getUser().getId();
 
+        cardRepository.delete(card);
+        userCardsCache.evictOwner(ownerId);
         logger.debug("Card with id: {} deleted successfully", cardId);
-        cardRepository.deleteById(cardId);
     }
 
     /**
      * {@inheritDoc}
+     * Served from the owner's {@code userCards} entry once this node knows the owner. Otherwise all cards of
+     * the owner are loaded with a single query and cached, so the owner's other cards are served from the cache too.
      *
      * @throws ResourceNotFoundException if the card with the specified ID is not found.
      */
@@ -341,14 +448,24 @@ public class UserServiceImpl implements UserService {
     public CardInfoDto getCardById(UUID cardId) {
         logger.debug("Fetching card with id: {}", cardId);
 
-        CardInfo cardInfo = cardRepository.findById(cardId)
+        Optional<CardInfoDto> cached = userCardsCache.find(cardId);
+        if (cached.isPresent()) {
+            logger.info(LogSampling.SAMPLED, "Card with id: {} fetched from its owner's cards", cardId);
+            return cached.get();
+        }
+
+        List<CardInfoDto> ownerCards = cardInfoMapper.toCardInfoDtoList(cardRepository.findAllOfOwnerByCardId(cardId));
+        CardInfoDto card = ownerCards.stream()
+                .filter(candidate -> candidate.id().equals(cardId))
+                .findFirst()
                 .orElseThrow(() -> {
-                    logger.error("Card fetch failed: card with id {} not found", cardId);
-                    return new ResourceNotFoundException(String.format(CARD_NOT_FOUND_MSG, cardId));
+                    logger.debug("Card fetch failed: card with id {} not found", cardId);
+                    return new ResourceNotFoundException(CARD_NOT_FOUND_MSG, cardId);
                 });
+        userCardsCache.put(card.userId(), ownerCards);
 
-        logger.info("Card with id: {} fetched successfully", cardId);
-        return cardInfoMapper.toCardInfoDto(cardInfo);
+        logger.info(LogSampling.SAMPLED, "Card with id: {} fetched successfully", cardId);
+        return card;
     }
 
     /**
@@ -368,7 +485,7 @@ public class UserServiceImpl implements UserService {
 
         CardInfoDto cardInfoDto = cardInfoMapper.toCardInfoDto(cardInfoOpt.get());
 
-        logger.info("Card with id: {} fetched successfully by number", cardInfoDto.id());
+        logger.info(LogSampling.SAMPLED, "Card with id: {} fetched successfully by number", cardInfoDto.id());
         return Optional.of(cardInfoDto);
     }
 
@@ -376,17 +493,21 @@ public class UserServiceImpl implements UserService {
      * {@inheritDoc}
      * This implementation retrieves cards based on the user ID. If the user ID does not exist,
      * it will return an empty list rather than throwing an exception.
+     * The list is cached in {@code userCards} until a card of the user is created or deleted, so it is read
+     * from the database rather than the second-level cache.
      */
     @Override
     @PreAuthorize("(hasRole('USER') and #userId.toString() == authentication.name) or hasRole('ADMIN')")
     @Transactional(readOnly = true)
+    @Cacheable(value = UserCardsCache.USER_CARDS_CACHE, key = "#userId")
     public List<CardInfoDto> getCardsByUserId(UUID userId) {
         logger.debug("Fetching cards for user with id: {}", userId);
 
-        List<CardInfo> cards = cardRepository.findByUserId(userId);
+        List<CardInfoDto> cards = cardInfoMapper.toCardInfoDtoList(cardRepository.findAllOfUser(userId));
+        userCardsCache.rememberOwners(cards);
 
-        logger.info("Fetched {} cards for user with id: {}", cards.size(), userId);
-        return cardInfoMapper.toCardInfoDtoList(cards);
+        logger.info(LogSampling.SAMPLED, "Fetched {} cards for user with id: {}", cards.size(), userId);
+        return cards;
     }
 
     /**
@@ -403,7 +524,7 @@ public class UserServiceImpl implements UserService {
         LocalDate today = LocalDate.now(clock);
         List<CardInfo> expiredCards = cardRepository.findExpiredCardsNative(today);
 
-        logger.info("Fetched {} expired cards", expiredCards.size());
+        logger.info(LogSampling.SAMPLED, "Fetched {} expired cards", expiredCards.size());
         return cardInfoMapper.toCardInfoDtoList(expiredCards);
     }
 }
\ No newline at end of file
@@ -6,9 +6,10 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+// the url comes from spring.cloud.openfeign.client.config.auth-service.url, which is read at runtime
+// and therefore also works for the AOT-processed build
 @FeignClient(
         name="auth-service",
-        url = "${application.config.auth-url}",
         path = "/api"
 )
 public interface AuthServiceClient {
@@ -0,0 +1,144 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import io.hohichh.marketplace.user.exception.GlobalExceptionHandler;
+import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * CPU time and heap allocation per request of a {@code GET /v1/users/{id}} flood for unknown ids, comparing the
+ * previous error path (stack-capturing exception with an eagerly formatted message, logged at ERROR by the
+ * service and again by the handler) with the current one (stackless {@code DomainException}, lazy message,
+ * rate-limited WARN in {@link GlobalExceptionHandler}, prebuilt problem template).
+ * <p>
+ * The exception is thrown from {@value #STACK_DEPTH} frames deep, roughly the depth of a Spring MVC request
+ * thread at the service layer. Run with {@code ./mvnw test -Pbenchmark -Dtest=ErrorPathBenchmark}.
+ */
+@Tag("benchmark")
+class ErrorPathBenchmark {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+    private static final int STACK_DEPTH = 120;
+    private static final String USER_NOT_FOUND_MESSAGE = "User with id %s not found.";
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void compareErrorPaths() {
+        LoggerContext context = new LoggerContext();
+        FileAppender<ILoggingEvent> file = fileAppender(context);
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(file);
+        org.slf4j.Logger serviceLogger = context.getLogger("io.hohichh.marketplace.user.service.UserServiceImpl");
+        org.slf4j.Logger handlerLogger = context.getLogger("io.hohichh.marketplace.user.exception.GlobalExceptionHandler");
+
+        // the real handler logs through the test logging setup; send its lines to the same file at INFO,
+        // so both paths pay for the lines they write
+        Logger realHandlerLogger = (Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class);
+        Level previousLevel = realHandlerLogger.getLevel();
+        boolean previousAdditive = realHandlerLogger.isAdditive();
+        realHandlerLogger.setLevel(Level.INFO);
+        realHandlerLogger.setAdditive(false);
+        realHandlerLogger.addAppender(file);
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        try {
+            measure("legacy: stack trace, String.format, 2x ERROR", () -> {
+                try {
+                    return atDepth(STACK_DEPTH, () -> {
+                        UUID id = UUID.randomUUID();
+                        serviceLogger.error("Error fetching user with id: {}", id);
+                        throw new LegacyNotFoundException(String.format(USER_NOT_FOUND_MESSAGE, id));
+                    });
+                } catch (LegacyNotFoundException ex) {
+                    handlerLogger.error("Error: can't find resource \n {}", ex.getMessage());
+                    ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+                    problemDetail.setTitle("Resource Not Found");
+                    return problemDetail;
+                }
+            });
+
+            measure("current: stackless, lazy message, limited WARN", () -> {
+                try {
+                    return atDepth(STACK_DEPTH, () -> {
+                        UUID id = UUID.randomUUID();
+                        serviceLogger.debug("User with id: {} not found", id);
+                        throw new ResourceNotFoundException(USER_NOT_FOUND_MESSAGE, id);
+                    });
+                } catch (ResourceNotFoundException ex) {
+                    return handler.handleResourceNotFound(ex);
+                }
+            });
+        } finally {
+            realHandlerLogger.detachAppender(file);
+            realHandlerLogger.setAdditive(previousAdditive);
+            realHandlerLogger.setLevel(previousLevel);
+            context.stop();
+        }
+    }
+
+    private static void measure(String name, Supplier<?> request) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+        }
+
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        long allocatedStart = threads.getThreadAllocatedBytes(threadId);
+        double wallNanos = MicroBenchmark.measure(name, 0, ITERATIONS, request);
+        long cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedStart;
+
+        System.out.printf("%-50s %12.1f ns cpu/op %10d B/op (wall %.1f ns/op)%n",
+                "", (double) cpu / ITERATIONS, allocated / ITERATIONS, wallNanos);
+    }
+
+    private static Object atDepth(int depth, Supplier<?> operation) {
+        return depth == 0 ? operation.get() : atDepth(depth - 1, operation);
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%t] %-40.40logger{39} : %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setName("file");
+        file.setFile(logDir.resolve("errors.log").toString());
+        file.setEncoder(encoder);
+        file.start();
+        return file;
+    }
+
+    /**
+     * The domain exception as it was before: a plain runtime exception that fills in its stack trace.
+     */
+    private static final class LegacyNotFoundException extends RuntimeException {
+
+        LegacyNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
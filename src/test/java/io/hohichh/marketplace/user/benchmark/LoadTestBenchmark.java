@@ -0,0 +1,370 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.hohichh.marketplace.user.integration.config.TestContainerConfiguration;
+import io.hohichh.marketplace.user.model.UuidV7Generator;
+import io.hohichh.marketplace.user.service.ExistenceFilters;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test of the running service over HTTP, against PostgreSQL and Redis containers and a WireMock
+ * stand-in for the auth service, with the production cache and schema configuration ({@code loadtest} profile).
+ * <p>
+ * Seeds users with cards directly through JDBC, then replays a weighted mix of requests from a fixed number of
+ * virtual-thread clients, each sending its next request as soon as the previous one is answered. After an
+ * unrecorded warm-up, latencies are recorded per endpoint in HdrHistograms; throughput, p50, p99, p99.9 and
+ * the maximum are printed and written to {@code target/load-test-report.csv}, so runs of different releases
+ * on the same machine can be compared. Being a closed model, the percentiles describe latency at the given
+ * concurrency, not at a fixed arrival rate.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=LoadTestBenchmark}. The workload is set with system properties:
+ * {@code load.users}, {@code load.cards-per-user}, {@code load.concurrency}, {@code load.warmup} and
+ * {@code load.duration} (ISO-8601 durations) and {@code load.mix}, a list of {@code endpoint=weight} pairs
+ * over {@value #DEFAULT_MIX}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@Import(TestContainerConfiguration.class)
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = "application.config.auth-url=http://localhost:${wiremock.server.port}")
+class LoadTestBenchmark {
+
+    static final String DEFAULT_MIX =
+            "get-user=45,user-cards=15,card-by-id=10,card-by-number=5,search=10,register=5,update=10";
+
+    private static final int USERS = Integer.getInteger("load.users", 10_000);
+    private static final int CARDS_PER_USER = Integer.getInteger("load.cards-per-user", 2);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT60S"));
+    private static final String MIX = System.getProperty("load.mix", DEFAULT_MIX);
+
+    private static final int SEED_BATCH_SIZE = 1_000;
+    private static final int NAME_GROUPS = 1_000;
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${server.servlet.context-path}")
+    private String contextPath;
+
+    @Value("${jwt.access.secret}")
+    private String jwtSecret;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ExistenceFilters existenceFilters;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong registrations = new AtomicLong();
+
+    private UUID[] userIds;
+    private String[] userTokens;
+    private UUID[] cardIds;
+    private int[] cardOwners;
+    private String[] cardNumbers;
+    private String adminToken;
+
+    @Test
+    void replayTrafficMix() throws Exception {
+        stubFor(post(urlEqualTo("/api/v1/auth/credentials"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"userId\": \"" + UUID.randomUUID() + "\"}")));
+        seed();
+
+        Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints = endpoints();
+        List<Weighted> mix = parseMix(endpoints);
+
+        System.out.printf("Load test: %,d users, %,d cards, %d clients, warm-up %s, measured %s, mix %s%n",
+                USERS, cardIds.length, CONCURRENCY, WARMUP, DURATION, MIX);
+        drive(mix, WARMUP);
+        Map<String, Result> results = drive(mix, DURATION);
+
+        report(results);
+        assertThat(results.values()).allSatisfy(result ->
+                assertThat(result.errors.sum()).as(result.name + " errors").isLessThan(result.latencies.getTotalCount() / 100 + 1));
+    }
+
+    private Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints() {
+        Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints = new LinkedHashMap<>();
+        endpoints.put("get-user", random -> {
+            int user = random.nextInt(USERS);
+            return get("/v1/users/" + userIds[user], userTokens[user]);
+        });
+        endpoints.put("user-cards", random -> {
+            int user = random.nextInt(USERS);
+            return get("/v1/users/" + userIds[user] + "/cards", userTokens[user]);
+        });
+        endpoints.put("card-by-id", random -> {
+            int card = random.nextInt(cardIds.length);
+            return get("/v1/cards/" + cardIds[card], userTokens[cardOwners[card]]);
+        });
+        endpoints.put("card-by-number", random ->
+                get("/v1/cards?number=" + cardNumbers[random.nextInt(cardNumbers.length)], adminToken));
+        endpoints.put("search", random ->
+                get("/v1/users?search=name" + random.nextInt(NAME_GROUPS) + "x&size=20", adminToken));
+        endpoints.put("register", random -> {
+            long n = registrations.incrementAndGet();
+            NewUserCredsDto body = new NewUserCredsDto("Registered", "User" + n, LocalDate.of(1990, 1, 1),
+                    "load-register-" + n + "@example.com", "load-login-" + n, "password");
+            return request("/v1/registration/users", null)
+                    .header("Idempotency-Key", UUID.randomUUID().toString())
+                    .POST(json(body))
+                    .build();
+        });
+        endpoints.put("update", random -> {
+            int user = random.nextInt(USERS);
+            NewUserDto body = new NewUserDto(name(user), "Updated" + random.nextInt(1_000_000),
+                    LocalDate.of(1990, 1, 1), email(user));
+            return request("/v1/users/" + userIds[user], userTokens[user])
+                    .PUT(json(body))
+                    .build();
+        });
+        return endpoints;
+    }
+
+    private Map<String, Result> drive(List<Weighted> mix, Duration duration) throws InterruptedException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        mix.forEach(weighted -> results.put(weighted.name, new Result(weighted.name)));
+        int totalWeight = mix.get(mix.size() - 1).cumulativeWeight;
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        int pick = random.nextInt(totalWeight);
+                        Weighted weighted = mix.stream().filter(w -> pick < w.cumulativeWeight).findFirst().orElseThrow();
+                        send(weighted.request.apply(random), results.get(weighted.name));
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+        results.values().forEach(result -> result.elapsedNanos = elapsed);
+        return results;
+    }
+
+    private void send(HttpRequest request, Result result) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                result.errors.increment();
+            }
+        } catch (IOException e) {
+            result.errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        result.latencies.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+    }
+
+    private void report(Map<String, Result> results) throws IOException {
+        Path file = Path.of("target", "load-test-report.csv");
+        Files.createDirectories(file.getParent());
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            csv.println("endpoint,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms");
+            System.out.printf("%-16s %10s %8s %10s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Result result : results.values()) {
+                Histogram histogram = result.latencies;
+                double throughput = histogram.getTotalCount() * 1e9 / result.elapsedNanos;
+                double p50 = histogram.getValueAtPercentile(50) / 1000.0;
+                double p99 = histogram.getValueAtPercentile(99) / 1000.0;
+                double p999 = histogram.getValueAtPercentile(99.9) / 1000.0;
+                double max = histogram.getMaxValue() / 1000.0;
+                System.out.printf("%-16s %,10d %,8d %,10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                        result.name, histogram.getTotalCount(), result.errors.sum(), throughput, p50, p99, p999, max);
+                csv.printf(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                        result.name, histogram.getTotalCount(), result.errors.sum(), throughput, p50, p99, p999, max);
+            }
+        }
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+
+    private void seed() {
+        UuidV7Generator ids = new UuidV7Generator();
+        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        adminToken = token(key, UUID.randomUUID(), "ADMIN");
+
+        userIds = new UUID[USERS];
+        userTokens = new String[USERS];
+        int cards = USERS * CARDS_PER_USER;
+        cardIds = new UUID[cards];
+        cardOwners = new int[cards];
+        cardNumbers = new String[cards];
+
+        LocalDate expiration = LocalDate.now().plusYears(2);
+        List<Object[]> userRows = new ArrayList<>(SEED_BATCH_SIZE);
+        List<Object[]> cardRows = new ArrayList<>(SEED_BATCH_SIZE * CARDS_PER_USER);
+        for (int user = 0; user < USERS; user++) {
+            userIds[user] = ids.next();
+            userTokens[user] = token(key, userIds[user], "USER");
+            userRows.add(new Object[]{userIds[user], name(user), "Seeded", Date.valueOf(LocalDate.of(1990, 1, 1)), email(user)});
+
+            for (int i = 0; i < CARDS_PER_USER; i++) {
+                int card = user * CARDS_PER_USER + i;
+                cardIds[card] = ids.next();
+                cardOwners[card] = user;
+                cardNumbers[card] = String.format("4%015d", card);
+                cardRows.add(new Object[]{cardIds[card], userIds[user], cardNumbers[card], "LOAD TEST", Date.valueOf(expiration)});
+            }
+
+            if (userRows.size() == SEED_BATCH_SIZE || user == USERS - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO users (id, name, surname, birth_date, email) VALUES (?, ?, ?, ?, ?)", userRows);
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO card_info (id, user_id, number, holder, expiration_date) VALUES (?, ?, ?, ?, ?)", cardRows);
+                userRows.clear();
+                cardRows.clear();
+            }
+        }
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE card_info");
+        existenceFilters.rebuild();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + contextPath + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Weighted> parseMix(Map<String, Function<ThreadLocalRandom, HttpRequest>> endpoints) {
+        List<Weighted> mix = new ArrayList<>();
+        int cumulative = 0;
+        for (String entry : MIX.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Function<ThreadLocalRandom, HttpRequest> request = endpoints.get(parts[0]);
+            if (request == null) {
+                throw new IllegalArgumentException("Unknown endpoint " + parts[0] + ", expected one of " + endpoints.keySet());
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                cumulative += weight;
+                mix.add(new Weighted(parts[0], cumulative, request));
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no endpoint with a positive weight");
+        }
+        return mix;
+    }
+
+    private static String token(SecretKey key, UUID subject, String role) {
+        return Jwts.builder()
+                .subject(subject.toString())
+                .claim("role", role)
+                .expiration(java.util.Date.from(Instant.now().plus(Duration.ofDays(1))))
+                .signWith(key)
+                .compact();
+    }
+
+    private static String name(int user) {
+        // "x" ends the group number, so searching group 1 does not also match groups 10-19 and 100-199
+        return "Name" + (user % NAME_GROUPS) + "x";
+    }
+
+    private static String email(int user) {
+        return "load-user-" + user + "@example.com";
+    }
+
+    private record Weighted(String name, int cumulativeWeight, Function<ThreadLocalRandom, HttpRequest> request) {
+    }
+
+    private static final class Result {
+
+        private final String name;
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private long elapsedNanos;
+
+        private Result(String name) {
+            this.name = name;
+        }
+    }
+}
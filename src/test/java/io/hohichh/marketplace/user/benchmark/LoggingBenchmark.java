@@ -0,0 +1,126 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import io.hohichh.marketplace.user.logging.LogSampling;
+import io.hohichh.marketplace.user.logging.SampledLogTurboFilter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.MDC;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency the logging of one {@code GET /v1/users/{id}} adds to the request thread, for the previous
+ * synchronous pattern appenders and for the async JSON pipeline of {@code logback-spring.xml}, with and
+ * without per-request sampling. Each request logs what the controller and the service log on that path.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=LoggingBenchmark}.
+ */
+@Tag("benchmark")
+class LoggingBenchmark {
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+    private static final String PATTERN = "%d{yyyy-MM-dd HH:mm:ss.SSS} %-5level [%t] %-40.40logger{39} : %msg%n";
+
+    @TempDir
+    Path logDir;
+
+    @Test
+    void compareLoggingPipelines() {
+        run("sync pattern", false, false, 1.0);
+        run("async json", true, false, 1.0);
+        run("async json, 5% sampled", true, true, 0.05);
+    }
+
+    private void run(String name, boolean async, boolean sampling, double sampleRate) {
+        LoggerContext context = new LoggerContext();
+        context.putObject(Environment.class.getName(), new StandardEnvironment());
+        if (sampling) {
+            SampledLogTurboFilter turboFilter = new SampledLogTurboFilter();
+            turboFilter.setContext(context);
+            turboFilter.start();
+            context.addTurboFilter(turboFilter);
+        }
+
+        // the production setup writes every line twice: to the console and to a file
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender(context, "console", async));
+        root.addAppender(appender(context, "file", async));
+
+        org.slf4j.Logger controllerLogger = context.getLogger("io.hohichh.marketplace.user.controller.RestUserController");
+        org.slf4j.Logger serviceLogger = context.getLogger("io.hohichh.marketplace.user.service.UserServiceImpl");
+
+        try {
+            MicroBenchmark.measureLatency(name, WARMUP, ITERATIONS, () -> {
+                UUID id = UUID.randomUUID();
+                MDC.put(LogSampling.MDC_KEY,
+                        Boolean.toString(ThreadLocalRandom.current().nextDouble() < sampleRate));
+                try {
+                    controllerLogger.debug("Received request to get user with id: {}", id);
+                    serviceLogger.debug("Fetching user with id: {}", id);
+                    serviceLogger.info(LogSampling.SAMPLED, "User with id: {} fetched successfully", id);
+                    controllerLogger.info(LogSampling.SAMPLED, "User with id: {} retrieved successfully", id);
+                } finally {
+                    MDC.remove(LogSampling.MDC_KEY);
+                }
+                return id;
+            });
+        } finally {
+            context.stop();
+        }
+    }
+
+    private Appender<ILoggingEvent> appender(LoggerContext context, String name, boolean async) {
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setName(name);
+        file.setFile(logDir.resolve(name + (async ? "-async" : "-sync") + ".log").toString());
+        file.setEncoder(async ? jsonEncoder(context) : patternEncoder(context));
+        file.start();
+        if (!async) {
+            return file;
+        }
+
+        AsyncAppender asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(context);
+        asyncAppender.setName("async-" + name);
+        asyncAppender.setQueueSize(8192);
+        asyncAppender.setDiscardingThreshold(1638);
+        asyncAppender.setNeverBlock(true);
+        asyncAppender.addAppender(file);
+        asyncAppender.start();
+        return asyncAppender;
+    }
+
+    private static Encoder<ILoggingEvent> patternEncoder(LoggerContext context) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return encoder;
+    }
+
+    private static Encoder<ILoggingEvent> jsonEncoder(LoggerContext context) {
+        StructuredLogEncoder encoder = new StructuredLogEncoder();
+        encoder.setContext(context);
+        encoder.setFormat("logstash");
+        encoder.start();
+        return encoder;
+    }
+}
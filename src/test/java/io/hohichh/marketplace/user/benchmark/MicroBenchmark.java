@@ -0,0 +1,75 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Minimal timing helper for the in-repo benchmarks.
+ * <p>
+ * Runs a warm-up phase so the JIT settles, then reports the mean time per operation.
+ * It is deliberately simple: numbers are meant for before/after comparisons on the same machine,
+ * not as absolute figures.
+ */
+final class MicroBenchmark {
+
+    private static volatile Object sink;
+
+    private MicroBenchmark() {
+    }
+
+    /**
+     * Measures the mean duration of one invocation of the given operation.
+     *
+     * @param name        Label printed with the result.
+     * @param warmup      Number of untimed invocations.
+     * @param iterations  Number of timed invocations.
+     * @param operation   The operation under test; its result is consumed so it cannot be optimized away.
+     * @return Mean nanoseconds per operation.
+     */
+    static double measure(String name, int warmup, int iterations, Supplier<?> operation) {
+        for (int i = 0; i < warmup; i++) {
+            sink = operation.get();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = operation.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double nanosPerOp = (double) elapsed / iterations;
+        System.out.printf("%-50s %12.1f ns/op (%d ops in %d ms)%n",
+                name, nanosPerOp, iterations, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return nanosPerOp;
+    }
+
+    /**
+     * Times every invocation separately and reports the latency distribution.
+     *
+     * @param name        Label printed with the result.
+     * @param warmup      Number of untimed invocations.
+     * @param iterations  Number of timed invocations.
+     * @param operation   The operation under test; its result is consumed so it cannot be optimized away.
+     * @return The 99th percentile in nanoseconds.
+     */
+    static long measureLatency(String name, int warmup, int iterations, Supplier<?> operation) {
+        for (int i = 0; i < warmup; i++) {
+            sink = operation.get();
+        }
+
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            sink = operation.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+
+        long p50 = samples[(int) (iterations * 0.50)];
+        long p99 = samples[Math.min(iterations - 1, (int) (iterations * 0.99))];
+        System.out.printf("%-50s p50 %8.1f us  p99 %8.1f us  max %8.1f us%n",
+                name, p50 / 1000.0, p99 / 1000.0, samples[iterations - 1] / 1000.0);
+        return p99;
+    }
+}
@@ -0,0 +1,55 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.hohichh.marketplace.user.cache.CompactRedisSerializer;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import static io.hohichh.marketplace.user.dto.UserFixtures.userWithCards;
+
+/**
+ * Compares payload size and encode/decode time of the cache value formats
+ * for a {@link UserWithCardsDto} with a growing number of cards.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=RedisSerializerBenchmark}.
+ */
+@Tag("benchmark")
+class RedisSerializerBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory())
+            .registerModule(new JavaTimeModule());
+    private final JavaType userType = smileMapper.constructType(UserWithCardsDto.class);
+
+    @ParameterizedTest(name = "{0} cards")
+    @ValueSource(ints = {0, 3, 50})
+    @SuppressWarnings("unchecked")
+    void compareFormats(int cardCount) {
+        UserWithCardsDto user = userWithCards(cardCount);
+
+        report("jdk", (RedisSerializer<UserWithCardsDto>) (RedisSerializer<?>) new JdkSerializationRedisSerializer(),
+                user, cardCount);
+        report("smile", new CompactRedisSerializer<>(smileMapper, userType, 1, -1), user, cardCount);
+        report("smile+lz4", new CompactRedisSerializer<>(smileMapper, userType, 1, 512), user, cardCount);
+    }
+
+    private static void report(String format, RedisSerializer<UserWithCardsDto> serializer,
+                               UserWithCardsDto user, int cardCount) {
+        byte[] bytes = serializer.serialize(user);
+        System.out.printf("%-10s cards=%-3d payload=%6d bytes%n", format, cardCount, bytes.length);
+
+        MicroBenchmark.measure(format + " encode (" + cardCount + " cards)", WARMUP, ITERATIONS,
+                () -> serializer.serialize(user));
+        MicroBenchmark.measure(format + " decode (" + cardCount + " cards)", WARMUP, ITERATIONS,
+                () -> serializer.deserialize(bytes));
+    }
+}
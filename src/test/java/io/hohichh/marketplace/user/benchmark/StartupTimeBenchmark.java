@@ -0,0 +1,206 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures time-to-first-request of the packaged service: from launching the JVM until
+ * {@code GET /api/actuator/health} answers 200, against real PostgreSQL and Redis containers.
+ * <p>
+ * Compares a plain JVM start with the AOT-processed start and with AOT plus a class-data sharing archive
+ * recorded by a training run, the same way the {@code Dockerfile} does it. Build the jar with the AOT profile first:
+ * {@code ./mvnw package -Paot -DskipTests && ./mvnw test -Pbenchmark -Dtest=StartupTimeBenchmark}.
+ * Without AOT classes in the jar only the plain start is measured.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmark {
+
+    private static final int RUNS = 3;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final String AOT_INITIALIZER =
+            "BOOT-INF/classes/io/hohichh/marketplace/user/UserApplication__ApplicationContextInitializer.class";
+
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    @TempDir
+    Path workDir;
+
+    @BeforeAll
+    static void startContainers() {
+        postgres.start();
+        redis.start();
+    }
+
+    @AfterAll
+    static void stopContainers() {
+        redis.stop();
+        postgres.stop();
+    }
+
+    @Test
+    void timeToFirstRequest() throws Exception {
+        Path jar = Path.of(System.getProperty("benchmark.jar", "target/user-0.0.1-SNAPSHOT.jar"));
+        assumeTrue(Files.exists(jar), "Package the application first: " + jar);
+
+        Path app = extract(jar);
+        boolean aot = containsAotClasses(jar);
+
+        // untimed: applies the Liquibase migrations and warms the file system cache
+        startAndWaitUntilReady(app, List.of());
+
+        report("jvm", app, List.of());
+        if (!aot) {
+            System.out.println("No AOT classes in " + jar + "; build with -Paot to measure the fast-startup mode");
+            return;
+        }
+        report("aot", app, List.of("-Dspring.aot.enabled=true"));
+
+        Path archive = workDir.resolve("app.jsa");
+        train(app, archive);
+        report("aot+cds", app, List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off"));
+    }
+
+    private void report(String mode, Path app, List<String> jvmOptions) throws Exception {
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            millis[i] = startAndWaitUntilReady(app, jvmOptions);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-10s time-to-first-request min %6d ms  median %6d ms  (%d runs)%n",
+                mode, millis[0], millis[RUNS / 2], RUNS);
+    }
+
+    private long startAndWaitUntilReady(Path app, List<String> jvmOptions) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(java());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-Dspring.profiles.active=docker", "-jar", app.toString()));
+        command.addAll(applicationArguments(port));
+
+        URI health = URI.create("http://localhost:" + port + "/api/actuator/health");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile())
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited early, see " + workDir.resolve("app.log"));
+                }
+                if (isHealthy(health)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Application was not ready within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void train(Path app, Path archive) throws Exception {
+        List<String> command = new ArrayList<>(java());
+        command.addAll(List.of(
+                "-XX:ArchiveClassesAtExit=" + archive, "-Xlog:cds=off", "-Xlog:cds+dynamic=off",
+                "-Dspring.aot.enabled=true", "-Dspring.context.exit=onRefresh",
+                "-Dspring.profiles.active=docker", "-jar", app.toString()));
+        command.addAll(applicationArguments(freePort()));
+        assertEquals(0, run(command, "training.log"), "Training run failed, see " + workDir.resolve("training.log"));
+    }
+
+    private Path extract(Path jar) throws Exception {
+        Path destination = workDir.resolve("application");
+        List<String> command = new ArrayList<>(java());
+        command.addAll(List.of("-Djarmode=tools", "-jar", jar.toAbsolutePath().toString(),
+                "extract", "--destination", destination.toString(), "--application-filename", "app.jar"));
+        assertEquals(0, run(command, "extract.log"), "Extracting the jar failed");
+        return destination.resolve("app.jar");
+    }
+
+    private int run(List<String> command, String logFile) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve(logFile).toFile())
+                .start();
+        return process.waitFor();
+    }
+
+    private List<String> applicationArguments(int port) {
+        return List.of(
+                "--server.port=" + port,
+                "--application.grpc.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getMappedPort(6379),
+                "--jwt.access.secret=benchmark-secret-key-that-is-long-enough-for-hs256",
+                "--application.config.auth-url=http://localhost");
+    }
+
+    private boolean isHealthy(URI health) {
+        try {
+            HttpResponse<Void> response = httpClient.send(
+                    HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(1)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean containsAotClasses(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.getEntry(AOT_INITIALIZER) != null;
+        }
+    }
+
+    private static List<String> java() {
+        return List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.hohichh.marketplace.user.cache.HotUserTracker;
+import io.hohichh.marketplace.user.controller.RestUserController;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.grpc.JwtServerInterceptor;
+import io.hohichh.marketplace.user.grpc.UserLookupGrpcService;
+import io.hohichh.marketplace.user.grpc.proto.GetUserRequest;
+import io.hohichh.marketplace.user.grpc.proto.User;
+import io.hohichh.marketplace.user.grpc.proto.UserLookupGrpc;
+import io.hohichh.marketplace.user.security.JwtAuthenticationFilter;
+import io.hohichh.marketplace.user.security.JwtValidator;
+import io.hohichh.marketplace.user.service.UserChangeFeedService;
+import io.hohichh.marketplace.user.service.UserExportService;
+import io.hohichh.marketplace.user.service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static io.hohichh.marketplace.user.dto.UserFixtures.userWithCards;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Compares the internal gRPC lookup with {@code GET /v1/users/{id}} for a user with a growing number of cards:
+ * payload size on the wire and p50/p99 latency of a full call.
+ * <p>
+ * Both sides run in-process against a mocked {@link UserService} with JWT authentication enabled, so the numbers
+ * cover authentication, dispatch and serialization but not the network or the data store. The REST side runs on
+ * the Spring MVC dispatcher through {@link MockMvc}, without Tomcat; the gRPC side uses the in-process transport.
+ * <p>
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=UserLookupTransportBenchmark}.
+ */
+@Tag("benchmark")
+class UserLookupTransportBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    @ParameterizedTest(name = "{0} cards")
+    @ValueSource(ints = {0, 3, 50})
+    void compareTransports(int cardCount) throws Exception {
+        UserWithCardsDto user = userWithCards(cardCount);
+        UserService userService = mock(UserService.class);
+        when(userService.getUserById(user.id())).thenReturn(user);
+        HotUserTracker hotUserTracker = mock(HotUserTracker.class);
+        JwtValidator jwtValidator = new JwtValidator(SECRET);
+        String token = Jwts.builder()
+                .subject(user.id().toString())
+                .claim("role", "USER")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new RestUserController(userService, hotUserTracker, mock(UserExportService.class),
+                        mock(UserChangeFeedService.class)))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(new ObjectMapper()
+                        .registerModule(new JavaTimeModule())
+                        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)))
+                .addFilters(new JwtAuthenticationFilter(jwtValidator))
+                .build();
+
+        String serverName = InProcessServerBuilder.generateName();
+        Server server = InProcessServerBuilder.forName(serverName)
+                .addService(ServerInterceptors.intercept(new UserLookupGrpcService(userService, hotUserTracker),
+                        new JwtServerInterceptor(jwtValidator)))
+                .build()
+                .start();
+        ManagedChannel channel = InProcessChannelBuilder.forName(serverName).build();
+        try {
+            Metadata headers = new Metadata();
+            headers.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER), "Bearer " + token);
+            UserLookupGrpc.UserLookupBlockingStub stub = UserLookupGrpc.newBlockingStub(channel)
+                    .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+            GetUserRequest request = GetUserRequest.newBuilder()
+                    .setId(ByteString.copyFrom(ByteBuffer.allocate(16)
+                            .putLong(user.id().getMostSignificantBits())
+                            .putLong(user.id().getLeastSignificantBits())
+                            .flip()))
+                    .build();
+
+            byte[] json = mockMvc.perform(get("/v1/users/{id}", user.id()).header("Authorization", "Bearer " + token))
+                    .andReturn().getResponse().getContentAsByteArray();
+            User proto = stub.getUser(request);
+            System.out.printf("cards=%-3d json=%6d bytes  protobuf=%6d bytes%n",
+                    cardCount, json.length, proto.getSerializedSize());
+
+            MicroBenchmark.measureLatency("rest  GET /v1/users/{id} (" + cardCount + " cards)", WARMUP, ITERATIONS,
+                    () -> {
+                        try {
+                            return mockMvc.perform(get("/v1/users/{id}", user.id())
+                                            .header("Authorization", "Bearer " + token))
+                                    .andReturn().getResponse().getContentAsByteArray();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+            MicroBenchmark.measureLatency("grpc  UserLookup/GetUser (" + cardCount + " cards)", WARMUP, ITERATIONS,
+                    () -> stub.getUser(request));
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+        }
+    }
+}
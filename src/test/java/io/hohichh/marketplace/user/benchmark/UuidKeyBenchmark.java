@@ -0,0 +1,143 @@
+package io.hohichh.marketplace.user.benchmark;
+
+import io.hohichh.marketplace.user.model.UuidV7Generator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput and index size with random (version 4) versus time-ordered (version 7) primary keys,
+ * on a copy of the {@code users} / {@code card_info} key layout in a real PostgreSQL.
+ * <p>
+ * Every user gets one card, so both the primary-key indexes and {@code idx_card_info_user_id} grow with the
+ * generated ids. Rows are written with batched inserts on one connection, the way Hibernate flushes them, and
+ * throughput is reported per million rows to show how random keys slow down once the indexes outgrow the
+ * buffer cache. Index size and leaf density come from {@code pgstattuple}.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=UuidKeyBenchmark}; {@code -Dbenchmark.rows} changes the
+ * number of users from the default of 10 million.
+ */
+@Tag("benchmark")
+class UuidKeyBenchmark {
+
+    private static final long ROWS = Long.getLong("benchmark.rows", 10_000_000L);
+    private static final int BATCH_SIZE = 1_000;
+    private static final long REPORT_EVERY = 1_000_000L;
+
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    @BeforeAll
+    static void startContainer() {
+        postgres.start();
+    }
+
+    @AfterAll
+    static void stopContainer() {
+        postgres.stop();
+    }
+
+    @Test
+    void generatorCost() {
+        UuidV7Generator generator = new UuidV7Generator();
+        MicroBenchmark.measure("UUID.randomUUID (v4)", 1_000_000, 5_000_000, UUID::randomUUID);
+        MicroBenchmark.measure("UuidV7Generator.next (v7)", 1_000_000, 5_000_000, generator::next);
+    }
+
+    @Test
+    void compareInsertThroughputAndIndexSize() throws SQLException {
+        UuidV7Generator generator = new UuidV7Generator();
+        run("v4", UUID::randomUUID);
+        run("v7", generator::next);
+    }
+
+    private void run(String name, Supplier<UUID> ids) throws SQLException {
+        try (Connection connection = connect()) {
+            createTables(connection, name);
+            connection.setAutoCommit(false);
+
+            String users = "INSERT INTO users_" + name + " (id, email) VALUES (?, ?)";
+            String cards = "INSERT INTO card_info_" + name + " (id, user_id, number) VALUES (?, ?, ?)";
+            long start = System.nanoTime();
+            long chunkStart = start;
+            try (PreparedStatement insertUser = connection.prepareStatement(users);
+                 PreparedStatement insertCard = connection.prepareStatement(cards)) {
+                for (long row = 1; row <= ROWS; row++) {
+                    UUID userId = ids.get();
+                    insertUser.setObject(1, userId);
+                    insertUser.setString(2, "user" + row + "@example.com");
+                    insertUser.addBatch();
+                    insertCard.setObject(1, ids.get());
+                    insertCard.setObject(2, userId);
+                    insertCard.setString(3, Long.toString(4_000_000_000_000_000L + row));
+                    insertCard.addBatch();
+
+                    if (row % BATCH_SIZE == 0 || row == ROWS) {
+                        insertUser.executeBatch();
+                        insertCard.executeBatch();
+                        connection.commit();
+                    }
+                    if (row % REPORT_EVERY == 0) {
+                        long now = System.nanoTime();
+                        System.out.printf("%s  rows %,12d  %,10.0f users/s in the last chunk%n",
+                                name, row, REPORT_EVERY * 1e9 / (now - chunkStart));
+                        chunkStart = now;
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            connection.setAutoCommit(true);
+
+            System.out.printf("%s  %,d users + %,d cards in %,d s: %,.0f users/s overall%n",
+                    name, ROWS, ROWS, TimeUnit.NANOSECONDS.toSeconds(elapsed), ROWS * 1e9 / elapsed);
+            reportIndex(connection, "users_" + name + "_pkey");
+            reportIndex(connection, "card_info_" + name + "_pkey");
+            reportIndex(connection, "idx_card_info_" + name + "_user_id");
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE card_info_" + name + ", users_" + name);
+            }
+        }
+    }
+
+    private static void createTables(Connection connection, String name) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            statement.execute("CREATE TABLE users_" + name + " (id uuid PRIMARY KEY, email varchar(255) NOT NULL)");
+            statement.execute("CREATE TABLE card_info_" + name + " (id uuid PRIMARY KEY, "
+                    + "user_id uuid NOT NULL REFERENCES users_" + name + " (id), number varchar(64) NOT NULL)");
+            statement.execute("CREATE INDEX idx_card_info_" + name + "_user_id ON card_info_" + name + " (user_id)");
+        }
+    }
+
+    private static void reportIndex(Connection connection, String index) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT pg_relation_size(?::regclass), avg_leaf_density, leaf_fragmentation FROM pgstatindex(?)")) {
+            statement.setString(1, index);
+            statement.setString(2, index);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                System.out.printf("    %-28s %,8d MB  leaf density %5.1f%%  leaf fragmentation %5.1f%%%n",
+                        index, rs.getLong(1) / (1024 * 1024), rs.getDouble(2), rs.getDouble(3));
+            }
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        // lets the driver rewrite each batch into multi-row inserts
+        return DriverManager.getConnection(postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                postgres.getUsername(), postgres.getPassword());
+    }
+}
@@ -0,0 +1,58 @@
+package io.hohichh.marketplace.user.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionCacheTest {
+
+    private final ConcurrentMapCache redisStandIn = new ConcurrentMapCache("users", false);
+
+    @Test
+    void get_shouldNotCacheFirstRequestOfKey_butCacheRepeatedOne() {
+        AdmissionCache cache = new AdmissionCache(redisStandIn, new FrequencySketch(1024), 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("key", () -> "value-" + loads.incrementAndGet())).isEqualTo("value-1");
+        assertThat(redisStandIn.get("key")).isNull();
+
+        assertThat(cache.get("key", () -> "value-" + loads.incrementAndGet())).isEqualTo("value-2");
+        assertThat(redisStandIn.get("key").get()).isEqualTo("value-2");
+
+        assertThat(cache.get("key", () -> "value-" + loads.incrementAndGet())).isEqualTo("value-2");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_shouldServeExistingEntry_evenForRarelyRequestedKey() {
+        AdmissionCache cache = new AdmissionCache(redisStandIn, new FrequencySketch(1024), 2);
+        redisStandIn.put("warmed", "cached");
+
+        assertThat(cache.get("warmed", () -> "loaded")).isEqualTo("cached");
+    }
+
+    @Test
+    void put_shouldAlwaysWriteThrough() {
+        AdmissionCache cache = new AdmissionCache(redisStandIn, new FrequencySketch(1024), 2);
+
+        cache.put("key", "value");
+
+        assertThat(redisStandIn.get("key").get()).isEqualTo("value");
+    }
+
+    @Test
+    void sketch_shouldAgeCounts_soOldPopularityFades() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        IntStream.range(0, 15).forEach(i -> sketch.increment("hot"));
+        assertThat(sketch.frequency("hot")).isEqualTo(15);
+
+        // enough distinct keys to trigger at least one halving of all counters
+        IntStream.range(0, 10 * 1024).forEach(i -> sketch.increment("other-" + i));
+
+        assertThat(sketch.frequency("hot")).isLessThan(15);
+    }
+}
@@ -0,0 +1,171 @@
+package io.hohichh.marketplace.user.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.model.CardInfo;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.service.ExistenceFilters;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationListenerTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID OTHER_USER_ID = UUID.randomUUID();
+    private static final UUID CARD_ID = UUID.randomUUID();
+    private static final LocalDate TODAY = LocalDate.of(2030, 6, 14);
+    private static final Duration CLAIM_TTL = Duration.ofMinutes(1);
+
+    @Mock
+    private JdbcConnectionDetails connectionDetails;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache secondLevelCache;
+
+    @Mock
+    private ExistenceFilters existenceFilters;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> redisValues;
+
+    private final CacheInvalidationNode node = new CacheInvalidationNode("user-app");
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(
+            "users", "usersWithBirthdayToday", "expiredCards", UserCardsCache.USER_CARDS_CACHE);
+
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        lenient().when(sessionFactory.getCache()).thenReturn(secondLevelCache);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(redisValues);
+
+        ApplicationCacheProperties properties = new ApplicationCacheProperties(null, null, null, null, null, null,
+                new ApplicationCacheProperties.Invalidation(true, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                        CLAIM_TTL), 0);
+        Clock clock = Clock.fixed(TODAY.atTime(23, 58).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        BirthdayListCache birthdayListCache = new BirthdayListCache(cacheManager, new TodayKeyGenerator(clock));
+        listener = new CacheInvalidationListener(connectionDetails, cacheManager, redisTemplate, node,
+                birthdayListCache, entityManagerFactory, existenceFilters,
+                new ObjectMapper().registerModule(new JavaTimeModule()), properties);
+
+        for (UUID userId : List.of(USER_ID, OTHER_USER_ID)) {
+            cacheManager.getCache("users").put(userId, "user");
+            cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE).put(userId, List.of());
+        }
+        cacheManager.getCache("usersWithBirthdayToday").put(TODAY, List.of());
+        cacheManager.getCache("usersWithBirthdayToday").put(TODAY.plusDays(1), List.of());
+        cacheManager.getCache("expiredCards").put("all", List.of());
+    }
+
+    @Test
+    void handle_shouldEvictSharedEntriesAndRecordEmail_whenThisNodeChangedUser() {
+        listener.handle("{\"entity\":\"user\",\"id\":\"" + USER_ID + "\",\"email\":\"new@example.com\","
+                + "\"birthDate\":\"1990-06-15\",\"removed\":false,\"node\":\"" + node.name() + "\",\"tx\":7}");
+
+        assertThat(cacheManager.getCache("users").get(USER_ID)).isNull();
+        assertThat(cacheManager.getCache("users").get(OTHER_USER_ID)).isNotNull();
+        // only tomorrow's precomputed list includes a user born on June 15
+        assertThat(cacheManager.getCache("usersWithBirthdayToday").get(TODAY)).isNotNull();
+        assertThat(cacheManager.getCache("usersWithBirthdayToday").get(TODAY.plusDays(1))).isNull();
+        assertThat(cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE).get(USER_ID)).isNotNull();
+        verify(existenceFilters).recordEmail("new@example.com");
+        // this node's Hibernate made the change
+        verifyNoInteractions(secondLevelCache, redisTemplate);
+    }
+
+    @Test
+    void handle_shouldEvictOwnerAndNaturalIds_whenCardRemovedOutsideApplication() {
+        String payload = cardRemoved("psql", 42);
+        String claim = "cache-invalidation:42:" + UUID.nameUUIDFromBytes(payload.getBytes(StandardCharsets.UTF_8));
+        when(redisValues.setIfAbsent(claim, node.name(), CLAIM_TTL)).thenReturn(true);
+
+        listener.handle(payload);
+
+        assertThat(cacheManager.getCache("users").get(USER_ID)).isNull();
+        assertThat(cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE).get(USER_ID)).isNull();
+        assertThat(cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE).get(OTHER_USER_ID)).isNotNull();
+        assertThat(cacheManager.getCache("expiredCards").get("all")).isNull();
+        verify(secondLevelCache).evictEntityData(CardInfo.class, CARD_ID);
+        verify(secondLevelCache).evictCollectionData(User.class.getName() + ".cards", USER_ID);
+        verify(secondLevelCache).evictQueryRegions();
+        verify(secondLevelCache).evictNaturalIdData(CardInfo.class);
+        verify(existenceFilters, never()).recordCardNumber(any());
+    }
+
+    @Test
+    void handle_shouldOnlyEvictSecondLevelCache_whenAnotherNodeChangedCard() {
+        listener.handle(cardRemoved("user-app/" + UUID.randomUUID(), 42));
+
+        assertThat(cacheManager.getCache("users").get(USER_ID)).isNotNull();
+        assertThat(cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE).get(USER_ID)).isNotNull();
+        assertThat(cacheManager.getCache("expiredCards").get("all")).isNotNull();
+        verify(secondLevelCache).evictEntityData(CardInfo.class, CARD_ID);
+        verify(secondLevelCache).evictQueryRegions();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void handle_shouldLeaveSharedEntriesToClaimingNode_whenChangeOutsideApplicationWasClaimed() {
+        when(redisValues.setIfAbsent(any(), any(), any(Duration.class))).thenReturn(false);
+
+        listener.handle(cardRemoved(null, 42));
+
+        assertThat(cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE).get(USER_ID)).isNotNull();
+        assertThat(cacheManager.getCache("expiredCards").get("all")).isNotNull();
+        verify(secondLevelCache).evictEntityData(CardInfo.class, CARD_ID);
+    }
+
+    @Test
+    void handle_shouldIgnoreMalformedPayload() {
+        listener.handle("not json");
+
+        assertThat(cacheManager.getCache("users").get(USER_ID)).isNotNull();
+        verifyNoInteractions(existenceFilters);
+    }
+
+    private static String cardRemoved(String node, long tx) {
+        return "{\"entity\":\"card\",\"id\":\"" + CARD_ID + "\",\"userId\":\"" + USER_ID
+                + "\",\"number\":\"4000\",\"removed\":true,\"node\":"
+                + (node == null ? "null" : "\"" + node + "\"") + ",\"tx\":" + tx + "}";
+    }
+}
@@ -0,0 +1,90 @@
+package io.hohichh.marketplace.user.cache;
+
+import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingCacheTest {
+
+    private final ConcurrentMapCache redisStandIn = new ConcurrentMapCache("users", false);
+
+    @Test
+    void get_shouldRunLoaderOnce_forConcurrentMissesOfSameKey() throws Exception {
+        CoalescingCache cache = new CoalescingCache(redisStandIn, CacheLoadLease.LOCAL,
+                Duration.ofSeconds(1), Duration.ofMillis(5));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("key", () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(50);
+                        return "value";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("value");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(redisStandIn.get("key")).isNotNull();
+    }
+
+    @Test
+    void get_shouldWaitForRemoteLoad_whenLeaseIsHeldElsewhere() {
+        CacheLoadLease heldElsewhere = (cacheName, key) -> {
+            redisStandIn.put(key, "loaded-by-other-node");
+            return null;
+        };
+        CoalescingCache cache = new CoalescingCache(redisStandIn, heldElsewhere,
+                Duration.ofSeconds(1), Duration.ofMillis(5));
+
+        String value = cache.get("key", () -> "loaded-locally");
+
+        assertThat(value).isEqualTo("loaded-by-other-node");
+    }
+
+    @Test
+    void get_shouldLoadLocally_whenRemoteLoadDoesNotAppearInTime() {
+        CoalescingCache cache = new CoalescingCache(redisStandIn, (cacheName, key) -> null,
+                Duration.ofMillis(20), Duration.ofMillis(5));
+
+        String value = cache.get("key", () -> "loaded-locally");
+
+        assertThat(value).isEqualTo("loaded-locally");
+        assertThat(redisStandIn.get("key", String.class)).isEqualTo("loaded-locally");
+    }
+
+    @Test
+    void get_shouldWrapLoaderFailure_andNotCacheAnything() {
+        CoalescingCache cache = new CoalescingCache(redisStandIn, CacheLoadLease.LOCAL,
+                Duration.ofSeconds(1), Duration.ofMillis(5));
+
+        assertThatThrownBy(() -> cache.get("key", () -> {
+            throw new ResourceNotFoundException("missing");
+        }))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        assertThat(redisStandIn.get("key")).isNull();
+    }
+}
@@ -0,0 +1,78 @@
+package io.hohichh.marketplace.user.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+
+import static io.hohichh.marketplace.user.dto.UserFixtures.userWithCards;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRedisSerializerTest {
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory())
+            .registerModule(new JavaTimeModule());
+    private final JavaType userType = smileMapper.constructType(UserWithCardsDto.class);
+
+    @Test
+    void roundTrip_shouldRestoreValue_withoutCompression() {
+        CompactRedisSerializer<UserWithCardsDto> serializer =
+                new CompactRedisSerializer<>(smileMapper, userType, 1, -1);
+        UserWithCardsDto user = userWithCards(2);
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertThat(bytes[0]).isEqualTo(CompactRedisSerializer.MAGIC);
+        assertThat(bytes[2] & CompactRedisSerializer.FLAG_LZ4).isZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    void roundTrip_shouldRestoreValue_whenCompressed() {
+        CompactRedisSerializer<UserWithCardsDto> serializer =
+                new CompactRedisSerializer<>(smileMapper, userType, 1, 64);
+        UserWithCardsDto user = userWithCards(40);
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertThat(bytes[2] & CompactRedisSerializer.FLAG_LZ4).isNotZero();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(user);
+    }
+
+    @Test
+    void serialize_shouldBeSmallerThanJdkSerialization() {
+        CompactRedisSerializer<UserWithCardsDto> serializer =
+                new CompactRedisSerializer<>(smileMapper, userType, 1, 512);
+        UserWithCardsDto user = userWithCards(3);
+
+        byte[] compact = serializer.serialize(user);
+        byte[] jdk = new JdkSerializationRedisSerializer().serialize(user);
+
+        assertThat(compact.length).isLessThan(jdk.length);
+    }
+
+    @Test
+    void deserialize_shouldReturnNull_whenSchemaVersionDiffers() {
+        CompactRedisSerializer<UserWithCardsDto> oldSerializer =
+                new CompactRedisSerializer<>(smileMapper, userType, 1, -1);
+        CompactRedisSerializer<UserWithCardsDto> newSerializer =
+                new CompactRedisSerializer<>(smileMapper, userType, 2, -1);
+
+        byte[] bytes = oldSerializer.serialize(userWithCards(1));
+
+        assertThat(newSerializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void deserialize_shouldReturnNull_forJdkSerializedValue() {
+        CompactRedisSerializer<UserWithCardsDto> serializer =
+                new CompactRedisSerializer<>(smileMapper, userType, 1, -1);
+
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(userWithCards(1));
+
+        assertThat(serializer.deserialize(legacy)).isNull();
+    }
+}
@@ -0,0 +1,85 @@
+package io.hohichh.marketplace.user.cache;
+
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.mapper.UserMapper;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotUserCacheWarmerTest {
+
+    @Mock
+    private HotUserTracker hotUserTracker;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(HotUserCacheWarmer.CACHE_NAME);
+
+    @Test
+    void warmUp_shouldLoadHotUsersInBatchesAndCacheThemById() {
+        List<UUID> ids = IntStream.range(0, 5).mapToObj(i -> UUID.randomUUID()).toList();
+        when(hotUserTracker.topUserIds(10)).thenReturn(ids);
+        when(userRepository.findAllWithCardsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<UUID> batch = invocation.getArgument(0);
+            List<User> users = new ArrayList<>();
+            for (UUID id : batch) {
+                User user = mock(User.class);
+                when(user.getId()).thenReturn(id);
+                users.add(user);
+            }
+            return users;
+        });
+        when(userMapper.toUserWithCardsDto(any(User.class))).thenAnswer(invocation -> {
+            UUID id = invocation.<User>getArgument(0).getId();
+            return new UserWithCardsDto(id, "John", null, null, id + "@example.com", List.of());
+        });
+
+        int warmed = warmer(2).warmUp();
+
+        assertThat(warmed).isEqualTo(5);
+        verify(userRepository, times(3)).findAllWithCardsByIdIn(anyCollection());
+        ids.forEach(id -> assertThat(cacheManager.getCache(HotUserCacheWarmer.CACHE_NAME).get(id)).isNotNull());
+    }
+
+    @Test
+    void warmUp_shouldSkipWhenNothingWasTracked() {
+        when(hotUserTracker.topUserIds(10)).thenReturn(List.of());
+
+        assertThat(warmer(2).warmUp()).isZero();
+        verify(userRepository, times(0)).findAllWithCardsByIdIn(anyCollection());
+    }
+
+    private HotUserCacheWarmer warmer(int batchSize) {
+        ApplicationCacheProperties properties = new ApplicationCacheProperties(null, null, null, null,
+                new ApplicationCacheProperties.Warmup(true, "hot-users", 100, Duration.ofSeconds(10),
+                        Duration.ofHours(1), 10, batchSize, 2, Duration.ofSeconds(5)),
+                null, null, 0);
+        return new HotUserCacheWarmer(hotUserTracker, userRepository, userMapper, cacheManager, properties);
+    }
+}
@@ -0,0 +1,73 @@
+package io.hohichh.marketplace.user.cache;
+
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HotUserTrackerTest {
+
+    private static final Instant NOW = Instant.parse("2030-06-15T10:20:00Z");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private HotUserTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationCacheProperties properties = new ApplicationCacheProperties(null, null, null, null,
+                new ApplicationCacheProperties.Warmup(true, "hot-users", 100, Duration.ofSeconds(10),
+                        Duration.ofHours(1), 10, 10, 1, Duration.ofSeconds(1)),
+                null, null, 0);
+        tracker = new HotUserTracker(redisTemplate, properties, Clock.fixed(NOW, ZoneOffset.UTC));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void decay_shouldHalveScores_whenFirstInItsInterval() {
+        long period = NOW.toEpochMilli() / Duration.ofHours(1).toMillis();
+        when(valueOperations.setIfAbsent("hot-users:decayed:" + period, "1", Duration.ofHours(2))).thenReturn(true);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        tracker.decay();
+
+        verify(zSetOperations).unionAndStore("hot-users", List.of(), "hot-users", Aggregate.SUM, Weights.of(0.5));
+    }
+
+    @Test
+    void decay_shouldSkip_whenAnotherNodeDecayedInTheSameInterval() {
+        when(valueOperations.setIfAbsent(anyString(), eq("1"), any(Duration.class))).thenReturn(false);
+
+        tracker.decay();
+
+        verify(redisTemplate, never()).opsForZSet();
+    }
+}
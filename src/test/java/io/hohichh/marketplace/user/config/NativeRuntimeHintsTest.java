@@ -0,0 +1,61 @@
+package io.hohichh.marketplace.user.config;
+
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.model.UuidV7Generator;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.PreparedStatement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeRuntimeHintsTest() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void hintsShouldReferToExistingClasses() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        NativeRuntimeHints.JJWT_IMPLEMENTATION_CLASSES.forEach(name ->
+                assertThat(classExists(name, classLoader)).as(name).isTrue());
+        NativeRuntimeHints.MAPPER_IMPLEMENTATION_CLASSES.forEach(name ->
+                assertThat(classExists(name, classLoader)).as(name).isTrue());
+    }
+
+    @Test
+    void shouldRegisterReflectionProxyAndResourceHints() {
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtParserBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(UuidV7Generator.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserWithCardsDto.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(AuthServiceClient.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies()
+                .forInterfaces(ProxyJdbcObject.class, PreparedStatement.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/changelog/db.changelog-master.xml")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource()
+                .forResource("db/changelog/changes/004-add-users-version.xml")).accepts(hints);
+    }
+
+    private static boolean classExists(String name, ClassLoader classLoader) {
+        try {
+            Class.forName(name, false, classLoader);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
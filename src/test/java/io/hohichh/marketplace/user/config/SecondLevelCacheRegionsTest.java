@@ -0,0 +1,40 @@
+package io.hohichh.marketplace.user.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.configuration.TypesafeConfigurator;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecondLevelCacheRegionsTest {
+
+    private final Config config = ConfigFactory.load();
+
+    @Test
+    void entityRegions_shouldBeBounded_andExpire() {
+        CaffeineConfiguration<Object, Object> users = region("user-entities");
+        CaffeineConfiguration<Object, Object> queries = region("default-query-results-region");
+
+        assertThat(users.getMaximumSize()).isEqualTo(OptionalLong.of(50_000));
+        assertThat(users.getExpireAfterWrite()).isEqualTo(OptionalLong.of(TimeUnit.SECONDS.toNanos(60)));
+        assertThat(queries.getMaximumSize()).isEqualTo(OptionalLong.of(10_000));
+    }
+
+    @Test
+    void timestampsRegion_shouldNeverEvictOrExpire() {
+        CaffeineConfiguration<Object, Object> timestamps = region("default-update-timestamps-region");
+
+        assertThat(timestamps.getMaximumSize()).isEmpty();
+        assertThat(timestamps.getExpireAfterWrite()).isEmpty();
+    }
+
+    private CaffeineConfiguration<Object, Object> region(String name) {
+        return TypesafeConfigurator.<Object, Object>from(config, name)
+                .orElseGet(() -> TypesafeConfigurator.defaults(config));
+    }
+}
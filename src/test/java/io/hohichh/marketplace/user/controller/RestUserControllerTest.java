@@ -1,8 +1,13 @@
 package io.hohichh.marketplace.user.controller;
 
+import io.hohichh.marketplace.user.cache.HotUserTracker;
 import io.hohichh.marketplace.user.dto.*;
 import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
 import io.hohichh.marketplace.user.dto.registration.UserCredsDto;
+import io.hohichh.marketplace.user.service.ETags;
+import io.hohichh.marketplace.user.service.UserChangeFeedService;
+import io.hohichh.marketplace.user.service.UserExportFormat;
+import io.hohichh.marketplace.user.service.UserExportService;
 import io.hohichh.marketplace.user.service.UserService;
 import io.hohichh.marketplace.user.webclient.AuthServiceClient;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,8 +19,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Collections;
@@ -33,6 +40,14 @@ class RestUserControllerTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private HotUserTracker hotUserTracker;
+
+    @Mock
+    private UserExportService userExportService;
+
+    @Mock
+    private UserChangeFeedService userChangeFeedService;
 
     @InjectMocks
     private RestUserController restUserController;
@@ -81,13 +96,13 @@ class RestUserControllerTest {
 
     @Test
     void updateUser_ShouldReturnOk_WithUpdatedUser() {
-        when(userService.updateUser(eq(testUserId), any(NewUserDto.class))).thenReturn(testUserDto);
+        when(userService.updateUser(eq(testUserId), any(NewUserDto.class), eq(null))).thenReturn(testUserDto);
 
-        ResponseEntity<UserDto> response = restUserController.updateUser(testUserId, testNewUserDto);
+        ResponseEntity<UserDto> response = restUserController.updateUser(testUserId, testNewUserDto, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(testUserDto);
-        verify(userService).updateUser(testUserId, testNewUserDto);
+        verify(userService).updateUser(testUserId, testNewUserDto, null);
     }
 
     @Test
@@ -109,7 +124,9 @@ class RestUserControllerTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(testUserWithCards);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ETags.of(testUserWithCards));
         verify(userService).getUserById(testUserId);
+        verify(hotUserTracker).recordAccess(testUserId);
     }
 
     @Test
@@ -176,4 +193,44 @@ class RestUserControllerTest {
         assertThat(response.getBody()).isEqualTo(birthdayUsers);
         verify(userService).getUsersWithBirthdayToday();
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportUsers_shouldStreamGzippedAttachment_inRequestedFormat() {
+        StreamingResponseBody body = outputStream -> { };
+        when(userExportService.exportUsers(UserExportFormat.CSV)).thenReturn(body);
+
+        ResponseEntity<StreamingResponseBody> response = restUserController.exportUsers(UserExportFormat.CSV);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isSameAs(body);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(UserExportFormat.CSV.getMediaType());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("users.csv");
+    }
+
+    @Test
+    void getUserChanges_shouldReturnChangesAfterCursor() {
+        UserChangesDto changes = new UserChangesDto(
+                List.of(new UserChangeDto(testUserId, false, java.time.Instant.now(), testUserDto)), "next", false);
+        when(userChangeFeedService.getChanges("previous", 50)).thenReturn(changes);
+
+        ResponseEntity<UserChangesDto> response = restUserController.getUserChanges("previous", 50);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(changes);
+    }
+
+    @Test
+    void lookupUsers_shouldReturnFoundUsers_andRecordTheirAccess() {
+        UUID unknownId = UUID.randomUUID();
+        UserWithCardsDto testUserWithCards = new UserWithCardsDto(testUserId, "John", null, null, "john@example.com", Collections.emptyList());
+        when(userService.getUsersByIds(List.of(testUserId, unknownId))).thenReturn(List.of(testUserWithCards));
+
+        ResponseEntity<List<UserWithCardsDto>> response =
+                restUserController.lookupUsers(new UserLookupRequest(List.of(testUserId, unknownId)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsExactly(testUserWithCards);
+        verify(hotUserTracker).recordAccess(testUserId);
+    }
+}
@@ -0,0 +1,29 @@
+package io.hohichh.marketplace.user.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTOs shared by the serializer tests and the benchmarks.
+ */
+public final class UserFixtures {
+
+    private UserFixtures() {
+    }
+
+    /**
+     * @param cardCount The number of cards, each with a distinct number and expiration date.
+     * @return A user with random ids owning {@code cardCount} cards.
+     */
+    public static UserWithCardsDto userWithCards(int cardCount) {
+        UUID userId = UUID.randomUUID();
+        List<CardInfoDto> cards = new ArrayList<>();
+        for (int i = 0; i < cardCount; i++) {
+            cards.add(new CardInfoDto(UUID.randomUUID(), userId, String.format("4000-0000-0000-%04d", i),
+                    "JOHN DOE", LocalDate.of(2030, 1, 1).plusDays(i)));
+        }
+        return new UserWithCardsDto(userId, "John", "Doe", LocalDate.of(1990, 5, 17), "john.doe@example.com", cards);
+    }
+}
@@ -0,0 +1,30 @@
+package io.hohichh.marketplace.user.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainExceptionTest {
+
+    @Test
+    void format_shouldMatchStringFormat_forStringPlaceholders() {
+        UUID id = UUID.randomUUID();
+        String template = "Card with id %s for user %s not found.";
+
+        assertThat(DomainException.format(template, id, 42)).isEqualTo(String.format(template, id, 42));
+        assertThat(DomainException.format("User %s not found.", (Object) null)).isEqualTo("User null not found.");
+        assertThat(DomainException.format("No placeholders.")).isEqualTo("No placeholders.");
+    }
+
+    @Test
+    void domainException_shouldHaveNoStackTrace_andKeepPlainMessages() {
+        ResourceNotFoundException templated = new ResourceNotFoundException("User with id %s not found.", 7);
+        ResourceCreationConflictException plain = new ResourceCreationConflictException("Email 50% taken");
+
+        assertThat(templated.getStackTrace()).isEmpty();
+        assertThat(templated.getMessage()).isEqualTo("User with id 7 not found.");
+        assertThat(plain.getMessage()).isEqualTo("Email 50% taken");
+    }
+}
@@ -0,0 +1,36 @@
+package io.hohichh.marketplace.user.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleConstraintViolation_shouldReturnConflict_forUniqueViolation() {
+        ProblemDetail problem = handler.handleConstraintViolation(violation("23505"));
+
+        assertThat(problem.getStatus()).isEqualTo(HttpStatus.CONFLICT.value());
+    }
+
+    @Test
+    void handleConstraintViolation_shouldReturnInternalServerError_forOtherViolations() {
+        assertThat(handler.handleConstraintViolation(violation("23503")).getStatus())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        assertThat(handler.handleConstraintViolation(new DataIntegrityViolationException("no SQL cause")).getStatus())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value());
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState) {
+        SQLException sqlException = new SQLException("violation", sqlState);
+        return new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("wrapped by the persistence provider", sqlException));
+    }
+}
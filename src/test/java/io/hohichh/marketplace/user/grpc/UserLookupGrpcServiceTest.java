@@ -0,0 +1,163 @@
+package io.hohichh.marketplace.user.grpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.hohichh.marketplace.user.cache.HotUserTracker;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
+import io.hohichh.marketplace.user.grpc.proto.GetUserRequest;
+import io.hohichh.marketplace.user.grpc.proto.GetUsersRequest;
+import io.hohichh.marketplace.user.grpc.proto.User;
+import io.hohichh.marketplace.user.grpc.proto.UserExistsRequest;
+import io.hohichh.marketplace.user.grpc.proto.UserLookupGrpc;
+import io.hohichh.marketplace.user.security.JwtValidator;
+import io.hohichh.marketplace.user.service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserLookupGrpcServiceTest {
+
+    private static final String SECRET = "my-dummy-test-secret-key-that-doesnt-matter";
+
+    private final UserService userService = mock(UserService.class);
+    private final HotUserTracker hotUserTracker = mock(HotUserTracker.class);
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(
+                        new UserLookupGrpcService(userService, hotUserTracker),
+                        new JwtServerInterceptor(new JwtValidator(SECRET))))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+    }
+
+    @Test
+    void getUser_shouldReturnUserWithCards_asTheAuthenticatedCaller() {
+        UUID userId = UUID.randomUUID();
+        CardInfoDto card = new CardInfoDto(UUID.randomUUID(), userId, "4000-0000-0000-0001", "JOHN DOE",
+                LocalDate.of(2030, 1, 31));
+        UserWithCardsDto dto = new UserWithCardsDto(userId, "John", null, LocalDate.of(1990, 5, 17),
+                "john@example.com", List.of(card));
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        when(userService.getUserById(userId)).thenAnswer(invocation -> {
+            seen.set(SecurityContextHolder.getContext().getAuthentication());
+            return dto;
+        });
+
+        User user = stub(token(userId, "USER"))
+                .getUser(GetUserRequest.newBuilder().setId(UserProtoMapper.toBytes(userId)).build());
+
+        assertThat(UserProtoMapper.toUuid(user.getId())).isEqualTo(userId);
+        assertThat(user.getSurname()).isEmpty();
+        assertThat(LocalDate.ofEpochDay(user.getBirthDate())).isEqualTo(dto.birthDate());
+        assertThat(user.getCardsList()).singleElement().satisfies(proto -> {
+            assertThat(proto.getNumber()).isEqualTo(card.cardNumber());
+            assertThat(LocalDate.ofEpochDay(proto.getExpirationDate())).isEqualTo(card.expirationDate());
+        });
+        assertThat(seen.get().getName()).isEqualTo(userId.toString());
+        assertThat(seen.get().getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(hotUserTracker).recordAccess(userId);
+    }
+
+    @Test
+    void getUser_shouldBeRejected_withoutValidToken() {
+        UserLookupGrpc.UserLookupBlockingStub anonymous = UserLookupGrpc.newBlockingStub(channel);
+        GetUserRequest request = GetUserRequest.newBuilder().setId(UserProtoMapper.toBytes(UUID.randomUUID())).build();
+
+        assertStatus(() -> anonymous.getUser(request), Status.Code.UNAUTHENTICATED);
+        assertStatus(() -> stub("not-a-jwt").getUser(request), Status.Code.UNAUTHENTICATED);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void serviceExceptions_shouldMapToStatusCodes() {
+        UUID missing = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        when(userService.getUserById(missing)).thenThrow(new ResourceNotFoundException("User not found"));
+        when(userService.getUserById(foreign)).thenThrow(new AccessDeniedException("Access Denied"));
+        UserLookupGrpc.UserLookupBlockingStub stub = stub(token(UUID.randomUUID(), "USER"));
+
+        assertStatus(() -> stub.getUser(GetUserRequest.newBuilder().setId(UserProtoMapper.toBytes(missing)).build()),
+                Status.Code.NOT_FOUND);
+        assertStatus(() -> stub.getUser(GetUserRequest.newBuilder().setId(UserProtoMapper.toBytes(foreign)).build()),
+                Status.Code.PERMISSION_DENIED);
+        assertStatus(() -> stub.getUser(GetUserRequest.getDefaultInstance()), Status.Code.INVALID_ARGUMENT);
+        assertStatus(() -> stub.getUsers(GetUsersRequest.getDefaultInstance()), Status.Code.INVALID_ARGUMENT);
+    }
+
+    @Test
+    void userExists_shouldDelegateToService() {
+        UUID userId = UUID.randomUUID();
+        when(userService.userExists(any())).thenReturn(true);
+
+        boolean exists = stub(token(UUID.randomUUID(), "ADMIN"))
+                .userExists(UserExistsRequest.newBuilder().setId(UserProtoMapper.toBytes(userId)).build())
+                .getExists();
+
+        assertThat(exists).isTrue();
+        verify(userService).userExists(userId);
+    }
+
+    private UserLookupGrpc.UserLookupBlockingStub stub(String token) {
+        Metadata headers = new Metadata();
+        headers.put(JwtServerInterceptor.AUTHORIZATION, "Bearer " + token);
+        return UserLookupGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+
+    private static String token(UUID userId, String role) {
+        return Jwts.builder()
+                .subject(userId.toString())
+                .claim("role", role)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+
+    private static void assertStatus(Runnable call, Status.Code code) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(code));
+    }
+}
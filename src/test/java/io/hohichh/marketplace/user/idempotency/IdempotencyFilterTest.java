@@ -0,0 +1,159 @@
+package io.hohichh.marketplace.user.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.config.IdempotencyProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final InMemoryStore store = new InMemoryStore();
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            new IdempotencyProperties(true, List.of("/v1/users", "/v1/users/{userId}/cards"),
+                    Duration.ofHours(1), Duration.ofSeconds(30), Duration.ofMillis(200), Duration.ofMillis(10),
+                    "idempotency:", DataSize.ofBytes(64)),
+            store, new ObjectMapper());
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final FilterChain createUser = (request, response) -> {
+        executions.incrementAndGet();
+        request.getInputStream().readAllBytes();
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(201);
+        http.setHeader("Location", "/v1/users/" + executions.get());
+        http.setHeader("ETag", "\"" + executions.get() + "\"");
+        http.setContentType("application/json");
+        http.getOutputStream().write(("{\"id\":" + executions.get() + "}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void doFilter_shouldReplayStoredResponse_withoutRunningRequestAgain() throws Exception {
+        MockHttpServletResponse first = post("/v1/users", "key-1", "{\"email\":\"a@b.c\"}");
+        MockHttpServletResponse retry = post("/v1/users", "key-1", "{\"email\":\"a@b.c\"}");
+
+        assertThat(executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getHeader("Location")).isEqualTo(first.getHeader("Location")).isEqualTo("/v1/users/1");
+        assertThat(retry.getHeader("ETag")).isEqualTo("\"1\"");
+
+        post("/v1/users", "key-2", "{\"email\":\"a@b.c\"}");
+        post("/v1/users/42/password", "key-1", "{\"email\":\"a@b.c\"}");
+        assertThat(executions).hasValue(3);
+    }
+
+    @Test
+    void doFilter_shouldRejectReusedKey_andTimeOutWaitingForPendingOriginal() throws Exception {
+        post("/v1/users", "key-1", "{\"email\":\"a@b.c\"}");
+        assertThat(post("/v1/users", "key-1", "{\"email\":\"x@y.z\"}").getStatus()).isEqualTo(422);
+
+        String pendingBody = "{\"email\":\"slow@b.c\"}";
+        post("/v1/users", "key-3", pendingBody);
+        String key = store.entries.keySet().stream().filter(k -> k.endsWith(":key-3")).findFirst().orElseThrow();
+        StoredResponse completed = store.entries.get(key);
+        store.entries.put(key, StoredResponse.pending(completed.fingerprint(), "other"));
+
+        MockHttpServletResponse duplicate = post("/v1/users", "key-3", pendingBody);
+
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(duplicate.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void doFilter_shouldRejectBodyLargerThanLimit_withoutRunningRequest() throws Exception {
+        MockHttpServletResponse response = post("/v1/users", "key-1", "{\"email\":\"" + "a".repeat(64) + "\"}");
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(0);
+        assertThat(store.entries).isEmpty();
+    }
+
+    @Test
+    void doFilter_shouldPassBufferedBodyToReadListener() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+        FilterChain asyncRead = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        received.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+            });
+        };
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/users");
+        request.addHeader("Idempotency-Key", "key-1");
+        request.setContent("{\"email\":\"a@b.c\"}".getBytes(StandardCharsets.UTF_8));
+
+        filter.doFilter(request, new MockHttpServletResponse(), asyncRead);
+
+        assertThat(received.toString(StandardCharsets.UTF_8)).isEqualTo("{\"email\":\"a@b.c\"}");
+        assertThat(allDataRead).isTrue();
+    }
+
+    private MockHttpServletResponse post(String uri, String idempotencyKey, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader("Idempotency-Key", idempotencyKey);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, createUser);
+        return response;
+    }
+
+    private static final class InMemoryStore implements IdempotencyStore {
+
+        private final Map<String, StoredResponse> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public StoredResponse claim(String key, StoredResponse pending, Duration ttl) {
+            return entries.putIfAbsent(key, pending);
+        }
+
+        @Override
+        public StoredResponse get(String key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public void complete(String key, StoredResponse response, Duration ttl) {
+            entries.put(key, response);
+        }
+
+        @Override
+        public void release(String key, StoredResponse pending) {
+            entries.remove(key, pending);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.hohichh.marketplace.user.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.cache.CacheInvalidationNode;
+import io.hohichh.marketplace.user.cache.UserCardsCache;
+import io.hohichh.marketplace.user.dto.NewCardInfoDto;
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Changes made directly in the database, bypassing {@link UserService}, must evict the cached entries.
+ * The tests install the notification triggers themselves, as the test schema is created by Hibernate.
+ */
+@SpringBootTest
+@DirtiesContext
+@TestPropertySource(properties = {
+        "application.config.auth-url=http://dummy",
+        "application.cache.invalidation.enabled=true",
+        "application.cache.invalidation.poll-timeout=1s"
+})
+class CacheInvalidationTest extends AbstractApplicationTest {
+
+    private static final String CHANGELOG = "db/changelog/changes/005-notify-cache-invalidation.xml";
+    private static final String CHANGELOG_TABLE = "cache_invalidation_test_changelog";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcConnectionDetails connectionDetails;
+
+    @Autowired
+    private CacheInvalidationNode node;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @BeforeEach
+    void installTriggers() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            database.setDatabaseChangeLogTableName(CHANGELOG_TABLE);
+            database.setDatabaseChangeLogLockTableName(CHANGELOG_TABLE + "_lock");
+            new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database).update("");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_users_notify_cache_invalidation ON users");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_card_info_notify_cache_invalidation ON card_info");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + CHANGELOG_TABLE);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + CHANGELOG_TABLE + "_lock");
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(java.util.Objects::nonNull)
+                .forEach(Cache::clear);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updateOutsideService_shouldEvictCachedUser() throws InterruptedException {
+        UserDto user = userService.createUser(
+                new NewUserDto("Before", "Update", LocalDate.of(1990, 1, 1), "invalidated@example.com"));
+        // the users cache admits a user on its second request
+        userService.getUserById(user.id());
+        userService.getUserById(user.id());
+        Cache users = cacheManager.getCache("users");
+        assertThat(users.get(user.id())).isNotNull();
+
+        updateOutsideApplication("UPDATE users SET name = 'After' WHERE id = ?", user.id());
+
+        awaitEvicted(users, user.id());
+        assertThat(userService.getUserById(user.id()).name()).isEqualTo("After");
+    }
+
+    @Test
+    void cardDeleteOutsideService_shouldEvictOwnersCards() throws InterruptedException {
+        UserDto user = userService.createUser(
+                new NewUserDto("Card", "Owner", LocalDate.of(1990, 1, 1), "owner@example.com"));
+        userService.createCardForUser(user.id(),
+                new NewCardInfoDto("4000-0000-0000-0048", "CARD OWNER", LocalDate.now().plusYears(2)));
+        assertThat(userService.getCardsByUserId(user.id())).hasSize(1);
+        Cache userCards = cacheManager.getCache(UserCardsCache.USER_CARDS_CACHE);
+        assertThat(userCards.get(user.id())).isNotNull();
+
+        updateOutsideApplication("DELETE FROM card_info WHERE user_id = ?", user.id());
+
+        awaitEvicted(userCards, user.id());
+        assertThat(userService.getCardsByUserId(user.id())).isEmpty();
+    }
+
+    @Test
+    void notification_shouldNameWritingNode() throws Exception {
+        try (Connection listening = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+                connectionDetails.getUsername(), connectionDetails.getPassword())) {
+            try (Statement statement = listening.createStatement()) {
+                statement.execute("LISTEN cache_invalidation");
+            }
+
+            UserDto user = userService.createUser(
+                    new NewUserDto("Named", "Node", LocalDate.of(1990, 1, 1), "named.node@example.com"));
+
+            PGNotification[] notifications = listening.unwrap(PGConnection.class).getNotifications(10_000);
+            assertThat(notifications).isNotNull().hasSize(1);
+            JsonNode payload = objectMapper.readTree(notifications[0].getParameter());
+            assertThat(payload.get("id").asText()).isEqualTo(user.id().toString());
+            assertThat(payload.get("node").asText()).isEqualTo(node.name());
+            assertThat(payload.get("tx").isIntegralNumber()).isTrue();
+        }
+    }
+
+    // as an ops script would, in a session that is not named after a node of the application
+    private void updateOutsideApplication(String sql, Object... args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL application_name = 'psql'");
+            jdbcTemplate.update(sql, args);
+        });
+    }
+
+    private static void awaitEvicted(Cache cache, UUID key) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (cache.get(key) != null && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(cache.get(key)).as("cache entry of %s", key).isNull();
+    }
+}
@@ -0,0 +1,92 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.hohichh.marketplace.user.service.ExistenceFilters;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "application.config.auth-url=http://dummy",
+        "application.existence-filter.enabled=true"
+})
+class ExistenceFilterTest extends AbstractApplicationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExistenceFilters existenceFilters;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createUser_shouldReturnConflict_whenEmailWasStoredWithoutTheFilterKnowing() {
+        String email = "behind.the.filter@example.com";
+        existenceFilters.rebuild();
+        insertUserBehindTheFilter(email);
+        assertThat(existenceFilters.emailDefinitelyAbsent(email)).isTrue();
+
+        ResponseEntity<ProblemDetail> response = restTemplate.postForEntity(
+                "/v1/users",
+                new NewUserDto("Adam", "FirstHuman", LocalDate.of(1999, 1, 1), email),
+                ProblemDetail.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getDetail()).isEqualTo("The request conflicts with existing data.");
+    }
+
+    @Test
+    void registerUser_shouldReturnConflictWithoutCreatingCredentials_whenEmailWasStoredWithoutTheFilterKnowing() {
+        String email = "registered.behind.the.filter@example.com";
+        existenceFilters.rebuild();
+        insertUserBehindTheFilter(email);
+        assertThat(existenceFilters.emailDefinitelyAbsent(email)).isTrue();
+
+        ResponseEntity<ProblemDetail> response = restTemplate.postForEntity(
+                "/v1/registration/users",
+                new NewUserCredsDto("Adam", "FirstHuman", LocalDate.of(1999, 1, 1), email, "adam", "password"),
+                ProblemDetail.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        verify(authClient, never()).createCredentials(any());
+    }
+
+    private void insertUserBehindTheFilter(String email) {
+        // as written by another node whose change this node has not seen yet
+        jdbcTemplate.update(
+                "insert into users (id, name, surname, birth_date, email, version) values (?, ?, ?, ?, ?, 0)",
+                UUID.randomUUID(), "Other", "Node", LocalDate.of(1990, 1, 1), email);
+    }
+}
@@ -0,0 +1,159 @@
+package io.hohichh.marketplace.user.integration;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native executable built by {@code ./mvnw -Pnative verify} against real PostgreSQL and Redis,
+ * covering the paths that depend on native-image hints: Liquibase changelogs, Hibernate entities,
+ * the Feign auth client, JJWT verification, MapStruct mappers and the Redis cache serializer.
+ * Skipped unless the {@code native.executable} system property points at the binary.
+ */
+@EnabledIfSystemProperty(named = "native.executable", matches = ".+")
+class NativeImageSmokeIT {
+
+    private static final String JWT_SECRET = "native-smoke-test-secret-key-long-enough-for-hs256";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(1);
+
+    private static final PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+    private static final WireMockServer authService = new WireMockServer(options().dynamicPort());
+
+    private static Process application;
+    private static RestClient restClient;
+
+    @BeforeAll
+    static void startApplication() throws Exception {
+        postgres.start();
+        redis.start();
+        authService.start();
+
+        int port = freePort();
+        File log = new File(System.getProperty("java.io.tmpdir"), "user-service-native-smoke.log");
+        application = new ProcessBuilder(List.of(
+                System.getProperty("native.executable"),
+                "--spring.profiles.active=docker",
+                "--server.port=" + port,
+                "--application.grpc.port=0",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getMappedPort(6379),
+                "--jwt.access.secret=" + JWT_SECRET,
+                "--application.config.auth-url=" + authService.baseUrl()))
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+
+        restClient = RestClient.create("http://localhost:" + port + "/api");
+        awaitHealthy(log);
+    }
+
+    @AfterAll
+    static void stopApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly();
+            }
+        }
+        authService.stop();
+        redis.stop();
+        postgres.stop();
+    }
+
+    @Test
+    void registerAndFetchUser_shouldWorkInNativeImage() {
+        authService.stubFor(post(urlEqualTo("/api/v1/auth/credentials"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"userId\": \"" + UUID.randomUUID() + "\"}")));
+
+        ResponseEntity<UserDto> registered = restClient.post()
+                .uri("/v1/registration/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new NewUserCredsDto("Native", "Smoke", LocalDate.of(1990, 1, 1),
+                        "native@example.com", "native", "password"))
+                .retrieve()
+                .toEntity(UserDto.class);
+        assertThat(registered.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        UUID userId = registered.getBody().id();
+
+        String token = Jwts.builder()
+                .subject(userId.toString())
+                .claim("role", "USER")
+                .signWith(Keys.hmacShaKeyFor(JWT_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        // the second read is served from Redis
+        for (int i = 0; i < 2; i++) {
+            UserWithCardsDto user = restClient.get()
+                    .uri("/v1/users/{id}", userId)
+                    .header("Authorization", "Bearer " + token)
+                    .retrieve()
+                    .body(UserWithCardsDto.class);
+            assertThat(user.email()).isEqualTo("native@example.com");
+            assertThat(user.cards()).isEmpty();
+        }
+    }
+
+    private static void awaitHealthy(File log) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("Native executable exited early, see " + log);
+            }
+            try {
+                if (restClient.get().uri("/actuator/health").retrieve().toBodilessEntity()
+                        .getStatusCode().is2xxSuccessful()) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                // not listening yet
+            }
+            Thread.sleep(50);
+        }
+        throw new IllegalStateException("Native executable was not ready within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package io.hohichh.marketplace.user.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.NewCardInfoDto;
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lookups by user id must touch a single hash partition of {@code users} and {@code card_info}.
+ * <p>
+ * The schema created by Hibernate for the tests is not partitioned, so the statements the repositories execute
+ * against it are captured and explained with {@code EXPLAIN ANALYZE} in a second schema built by the changelog.
+ * Partitions skipped at plan time do not appear in the plan and those skipped at run time are never executed.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "application.config.auth-url=http://dummy")
+class PartitionPruningTest extends AbstractApplicationTest {
+
+    private static final String SCHEMA = "partition_pruning";
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.xml";
+    private static final Pattern HASH_PARTITION = Pattern.compile("^(?:users|card_info)_p(\\d+)");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcConnectionDetails connectionDetails;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    private UserDto user;
+    private CardInfoDto card;
+    private String userPartition;
+
+    @BeforeEach
+    void migratePartitionedSchema() throws Exception {
+        user = userService.createUser(
+                new NewUserDto("Partitioned", "User", LocalDate.of(1990, 1, 1), "partitioned@example.com"));
+        card = userService.createCardForUser(user.id(),
+                new NewCardInfoDto("4000-0000-0000-0050", "PARTITIONED USER", LocalDate.now().plusYears(2)));
+
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        try (Connection connection = partitionedSchemaConnection()) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            database.setDefaultSchemaName(SCHEMA);
+            new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database).update("");
+
+            // the triggers of the partitioned tables resolve the tables they write through the search path
+            try (Statement copy = connection.createStatement()) {
+                copy.executeUpdate("INSERT INTO users (id, name, surname, birth_date, email, version) " +
+                        "SELECT id, name, surname, birth_date, email, version FROM public.users");
+                copy.executeUpdate("INSERT INTO card_info (id, user_id, number, holder, expiration_date) " +
+                        "SELECT id, user_id, number, holder, expiration_date FROM public.card_info");
+            }
+            connection.commit();
+        }
+        userPartition = jdbcTemplate.queryForObject(
+                "SELECT c.relname FROM " + SCHEMA + ".users u JOIN pg_class c ON c.oid = u.tableoid WHERE u.id = ?", String.class, user.id());
+
+        // lookups answered by the second-level or query cache would not reach the database
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void userRepositoryLookupsById_shouldTouchOnePartition() throws Exception {
+        List<String> statements = capture(() -> {
+            userRepository.findById(user.id());
+            userRepository.existsById(user.id());
+            userRepository.findAllWithCardsByIdIn(List.of(user.id()));
+        });
+
+        assertThat(statements).hasSize(3);
+        for (String statement : statements) {
+            assertTouchesOnlyUserPartition(statement);
+        }
+    }
+
+    @Test
+    void cardRepositoryLookupsByUserId_shouldTouchOnePartition() throws Exception {
+        List<String> statements = capture(() -> {
+            cardRepository.findByUserId(user.id());
+            // the inner lookup by card id cannot be pruned, the owner's cards are pruned once it returns
+            cardRepository.findAllOfOwnerByCardId(card.id());
+        });
+
+        assertThat(statements).hasSize(2);
+        for (String statement : statements) {
+            assertTouchesOnlyUserPartition(statement);
+        }
+    }
+
+    @Test
+    void deletes_shouldTouchOnePartition() throws Exception {
+        List<String> statements = capture(() -> transactionTemplate.executeWithoutResult(status -> {
+            cardRepository.delete(cardRepository.findById(card.id()).orElseThrow());
+            cardRepository.flush();
+            userRepository.deleteById(user.id());
+            userRepository.flush();
+        })).stream().filter(statement -> statement.startsWith("delete")).toList();
+
+        assertThat(statements).hasSize(2);
+        for (String statement : statements) {
+            assertTouchesOnlyUserPartition(statement);
+        }
+    }
+
+    private void assertTouchesOnlyUserPartition(String statement) throws Exception {
+        Set<String> partitions = executedPartitions(statement);
+        Set<String> hashPartitions = partitions.stream()
+                .map(HASH_PARTITION::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> matcher.group(1))
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        assertThat(partitions).as("partitions read by %s", statement).isNotEmpty();
+        assertThat(hashPartitions).as("hash partitions read by %s: %s", statement, partitions)
+                .containsExactly(userPartition.substring("users_p".length()));
+    }
+
+    /**
+     * Runs the statement in the partitioned schema and rolls it back.
+     *
+     * @return The partitions scanned at least once, outside of subqueries.
+     */
+    private Set<String> executedPartitions(String statement) throws Exception {
+        try (Connection connection = partitionedSchemaConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement explain = connection.createStatement();
+                 ResultSet plan = explain.executeQuery(
+                         "EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF, SUMMARY OFF, FORMAT JSON) " + statement)) {
+                plan.next();
+                Set<String> partitions = new TreeSet<>();
+                collectExecutedRelations(objectMapper.readTree(plan.getString(1)).get(0).get("Plan"), partitions);
+                return partitions;
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    /**
+     * A connection outside the pool, so the search path it uses does not leak into the application's connections.
+     */
+    private Connection partitionedSchemaConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(),
+                connectionDetails.getUsername(), connectionDetails.getPassword());
+        connection.setSchema(SCHEMA);
+        return connection;
+    }
+
+    private static void collectExecutedRelations(JsonNode node, Set<String> relations) {
+        String relationship = node.path("Parent Relationship").asText();
+        if (relationship.equals("InitPlan") || relationship.equals("SubPlan")) {
+            return;
+        }
+        if (node.has("Relation Name") && node.path("Actual Loops").asLong() > 0) {
+            relations.add(node.get("Relation Name").asText());
+        }
+        node.path("Plans").forEach(child -> collectExecutedRelations(child, relations));
+    }
+
+    /**
+     * @return The statements the call executed on this thread, with their parameters inlined as literals.
+     */
+    private List<String> capture(Runnable call) {
+        Thread caller = Thread.currentThread();
+        List<String> statements = new ArrayList<>();
+        QueryExecutionListener listener = new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                if (Thread.currentThread() == caller) {
+                    queryInfoList.forEach(query -> statements.add(inlineParameters(query)));
+                }
+            }
+        };
+
+        List<QueryExecutionListener> listeners =
+                ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().getListeners();
+        listeners.add(listener);
+        try {
+            call.run();
+        } finally {
+            listeners.remove(listener);
+        }
+        return statements;
+    }
+
+    private static String inlineParameters(QueryInfo query) {
+        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                ? List.of()
+                : query.getParametersList().get(0).stream()
+                        .sorted(Comparator.comparingInt(operation -> (Integer) operation.getArgs()[0]))
+                        .toList();
+        StringBuilder sql = new StringBuilder();
+        int next = 0;
+        for (char c : query.getQuery().toCharArray()) {
+            if (c == '?') {
+                sql.append(literal(parameters.get(next++)));
+            } else {
+                sql.append(c);
+            }
+        }
+        return sql.toString();
+    }
+
+    private static String literal(ParameterSetOperation parameter) {
+        if (ParameterSetOperation.isSetNullParameterOperation(parameter)) {
+            return "NULL";
+        }
+        Object value = parameter.getArgs()[1];
+        if (value instanceof Number) {
+            return value.toString();
+        }
+        return "'" + value.toString().replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,89 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.NewCardInfoDto;
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(locations = "classpath:hibernate-second-level-cache.properties", properties = {
+        "application.config.auth-url=http://dummy",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SecondLevelCacheTest extends AbstractApplicationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void cardAndNaturalIdLookups_shouldNotQueryDatabase_onceCached() {
+        UserDto user = userService.createUser(
+                new NewUserDto("Cached", "User", LocalDate.of(1990, 1, 1), "cached.user@example.com"));
+        CardInfoDto card = userService.createCardForUser(user.id(),
+                new NewCardInfoDto("4000-1111-2222-3333", "CACHED USER", LocalDate.now().plusYears(2)));
+
+        lookUp(user.id(), card.id(), user.email(), card.cardNumber());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        lookUp(user.id(), card.id(), user.email(), card.cardNumber());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isPositive();
+        assertThat(statistics.getQueryCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void getUserById_shouldCacheDatabaseState_whenSecondLevelCacheIsStale() {
+        UserDto user = userService.createUser(
+                new NewUserDto("Stale", "User", LocalDate.of(1990, 1, 1), "stale.user@example.com"));
+        userService.getUserByEmail(user.email());
+        assertThat(entityManagerFactory.getCache().contains(User.class, user.id())).isTrue();
+
+        // as committed by another node whose notification this node has not processed yet
+        jdbcTemplate.update("update users set name = ?, version = version + 1 where id = ?", "Fresh", user.id());
+
+        assertThat(userService.getUserById(user.id()).name()).isEqualTo("Fresh");
+        assertThat(userService.getUserByEmail(user.email())).get().extracting(u -> u.name()).isEqualTo("Fresh");
+    }
+
+    private void lookUp(UUID userId, UUID cardId, String email, String number) {
+        assertThat(userService.getCardById(cardId).id()).isEqualTo(cardId);
+        assertThat(userService.getCardsByUserId(userId)).extracting(CardInfoDto::id).containsExactly(cardId);
+        assertThat(userService.getUserByEmail(email)).get().extracting(u -> u.id()).isEqualTo(userId);
+        assertThat(userService.getCardByNumber(number)).get().extracting(CardInfoDto::id).isEqualTo(cardId);
+    }
+}
@@ -0,0 +1,46 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.jdbc.StatementScope;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Asserts the exact number of JDBC statements a call executes on the calling thread, so a change that adds
+ * a query to a service method fails a test instead of showing up in production. A batch counts as one statement.
+ */
+final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    static <T> T assertStatements(int expected, Supplier<T> call) {
+        try (StatementScope scope = StatementScope.open()) {
+            T result = call.get();
+            assertThat(scope.statements()).as("JDBC statements").isEqualTo(expected);
+            return result;
+        }
+    }
+
+    static void assertStatements(int expected, Runnable call) {
+        assertStatements(expected, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return The exception the call is expected to throw.
+     */
+    static Throwable assertStatementsAndFailure(int expected, ThrowingCallable call) {
+        try (StatementScope scope = StatementScope.open()) {
+            Throwable thrown = catchThrowable(call);
+            assertThat(thrown).as("exception").isNotNull();
+            assertThat(scope.statements()).as("JDBC statements").isEqualTo(expected);
+            return thrown;
+        }
+    }
+}
@@ -420,6 +420,26 @@ class UserApplicationTests extends AbstractApplicationTest {
 				.containsExactlyInAnyOrder("mike@today.com", "sarah@present.com");
 	}
 
+	@Test
+	void createUser_shouldKeepPrecomputedBirthdayList_whenUserIsNotBornOnThatDay() {
+		final LocalDate today = LocalDate.of(2025, 10, 30);
+		LocalDate tomorrow = today.plusDays(1);
+		when(clock.instant()).thenReturn(today.atTime(23, 56).atZone(ZoneId.of("UTC")).toInstant());
+		when(clock.getZone()).thenReturn(ZoneId.of("UTC"));
+		org.springframework.cache.Cache birthdays = cacheManager.getCache("usersWithBirthdayToday");
+		birthdays.put(tomorrow, List.of());
+
+		createTestUser(); // Adam, 1999-01-01
+
+		assertThat(birthdays.get(tomorrow)).isNotNull();
+
+		NewUserDto userTomorrow = new NewUserDto("Tom", "Morrow",
+				tomorrow.minusYears(25), "tom@morrow.com");
+		restTemplate.postForEntity("/v1/users", userTomorrow, UserDto.class);
+
+		assertThat(birthdays.get(tomorrow)).isNull();
+	}
+
 	@Test
 	void getAllUsersWithBirthdayToday_shouldReturnEmptyList_whenNoBirthdaysMatch() {
 		final LocalDate today = LocalDate.of(2025, 10, 30);
@@ -0,0 +1,80 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "application.config.auth-url=http://dummy",
+        "application.cache.admission.min-frequency=1"
+})
+class UserCacheStampedeTest extends AbstractApplicationTest {
+
+    private static final int CONCURRENT_REQUESTS = 500;
+
+    @Autowired
+    private UserService userService;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(org.springframework.cache.Cache::clear);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getUserById_shouldQueryDatabaseOnce_whenManyRequestsMissTogether() throws Exception {
+        User user = new User();
+        user.setName("Hot");
+        user.setSurname("User");
+        user.setBirthDate(LocalDate.of(1990, 1, 1));
+        user.setEmail("hot.user@example.com");
+        UUID id = userRepository.save(user).getId();
+        clearInvocations(userRepository);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserWithCardsDto>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.getUserById(id);
+                }));
+            }
+            start.countDown();
+            for (Future<UserWithCardsDto> result : results) {
+                assertThat(result.get().id()).isEqualTo(id);
+            }
+        }
+
+        verify(userRepository, times(1)).findWithCardsById(id);
+    }
+}
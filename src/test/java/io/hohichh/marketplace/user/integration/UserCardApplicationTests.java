@@ -4,6 +4,7 @@ import io.hohichh.marketplace.user.dto.CardInfoDto;
 import io.hohichh.marketplace.user.dto.NewCardInfoDto;
 import io.hohichh.marketplace.user.dto.NewUserDto;
 import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
 import io.hohichh.marketplace.user.webclient.AuthServiceClient;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -182,6 +183,33 @@ class UserCardApplicationTests extends AbstractApplicationTest {
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
+    @Test
+    void deleteCard_shouldEvictOwnerCaches_whenCardsWereCached() {
+        UUID userId = createTestUser(testUser);
+        CardInfoDto deletedCard = createTestCard(userId, testCard);
+        CardInfoDto keptCard = createTestCard(userId, new NewCardInfoDto(
+                "2222-2222-2222-2222", "ADAM FIRSTHUMAN", LocalDate.now().plusYears(2)));
+
+        ParameterizedTypeReference<List<CardInfoDto>> responseType = new ParameterizedTypeReference<>() {};
+        String cardsUrl = "/v1/users/" + userId + "/cards";
+        String userUrl = "/v1/users/" + userId;
+        String cardUrl = "/v1/cards/" + deletedCard.id();
+        assertThat(restTemplate.exchange(cardsUrl, HttpMethod.GET, null, responseType).getBody()).hasSize(2);
+        assertThat(restTemplate.getForEntity(userUrl, UserWithCardsDto.class).getBody().cards()).hasSize(2);
+        assertThat(restTemplate.getForEntity(cardUrl, CardInfoDto.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        restTemplate.delete(cardUrl);
+
+        assertThat(restTemplate.exchange(cardsUrl, HttpMethod.GET, null, responseType).getBody())
+                .extracting(CardInfoDto::id)
+                .containsExactly(keptCard.id());
+        assertThat(restTemplate.getForEntity(userUrl, UserWithCardsDto.class).getBody().cards())
+                .extracting(CardInfoDto::id)
+                .containsExactly(keptCard.id());
+        assertThat(restTemplate.getForEntity(cardUrl, ProblemDetail.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
     @Test
     void deleteCard_shouldReturnNotFound_whenCardDoesNotExist() {
         UUID nonexistentCardId = UUID.randomUUID();
@@ -0,0 +1,129 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserChangeDto;
+import io.hohichh.marketplace.user.dto.UserChangesDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.service.UserChangeFeedService;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The change feed relies on the tracking columns and triggers of the migration, so the tests install it
+ * on top of the schema created by Hibernate.
+ */
+@SpringBootTest
+@TestPropertySource(properties = "application.config.auth-url=http://dummy")
+class UserChangeFeedTest extends AbstractApplicationTest {
+
+    private static final String CHANGELOG = "db/changelog/changes/006-users-change-feed.xml";
+    private static final String CHANGELOG_TABLE = "user_change_feed_test_changelog";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserChangeFeedService userChangeFeedService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @BeforeEach
+    void installChangeTracking() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance()
+                    .findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            database.setDatabaseChangeLogTableName(CHANGELOG_TABLE);
+            database.setDatabaseChangeLogLockTableName(CHANGELOG_TABLE + "_lock");
+            new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database).update("");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_users_track_change ON users");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_users_record_tombstone ON users");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS trg_card_info_track_change ON card_info");
+        jdbcTemplate.execute("ALTER TABLE users DROP COLUMN IF EXISTS updated_at, DROP COLUMN IF EXISTS change_xid");
+        jdbcTemplate.execute("ALTER TABLE card_info DROP COLUMN IF EXISTS updated_at");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS user_tombstones");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + CHANGELOG_TABLE);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + CHANGELOG_TABLE + "_lock");
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getChanges_shouldReturnWritesInCommitOrder_andTombstonesForDeletes() {
+        UserDto first = userService.createUser(
+                new NewUserDto("First", "User", LocalDate.of(1990, 1, 1), "first@example.com"));
+        UserDto second = userService.createUser(
+                new NewUserDto("Second", "User", LocalDate.of(1991, 1, 1), "second@example.com"));
+        userService.updateUser(first.id(),
+                new NewUserDto("Renamed", "User", LocalDate.of(1990, 1, 1), "first@example.com"), null);
+        userService.deleteUser(second.id());
+
+        UserChangesDto changes = userChangeFeedService.getChanges(null, 10);
+
+        assertThat(changes.hasMore()).isFalse();
+        assertThat(changes.changes()).extracting(UserChangeDto::id).containsExactly(first.id(), second.id());
+        assertThat(changes.changes().get(0).user().name()).isEqualTo("Renamed");
+        assertThat(changes.changes().get(1).deleted()).isTrue();
+        assertThat(changes.changes().get(1).user()).isNull();
+    }
+
+    @Test
+    void getChanges_shouldContinueAfterCursor() {
+        UserDto first = userService.createUser(
+                new NewUserDto("First", "User", LocalDate.of(1990, 1, 1), "first@example.com"));
+        UserDto second = userService.createUser(
+                new NewUserDto("Second", "User", LocalDate.of(1991, 1, 1), "second@example.com"));
+
+        UserChangesDto firstPage = userChangeFeedService.getChanges(null, 1);
+        UserChangesDto secondPage = userChangeFeedService.getChanges(firstPage.nextCursor(), 1);
+        UserChangesDto upToDate = userChangeFeedService.getChanges(secondPage.nextCursor(), 1);
+
+        assertThat(firstPage.hasMore()).isTrue();
+        assertThat(firstPage.changes()).extracting(UserChangeDto::id).containsExactly(first.id());
+        assertThat(secondPage.changes()).extracting(UserChangeDto::id).containsExactly(second.id());
+        assertThat(upToDate.changes()).isEmpty();
+        assertThat(upToDate.hasMore()).isFalse();
+        assertThat(upToDate.nextCursor()).isEqualTo(secondPage.nextCursor());
+
+        userService.updateUser(first.id(),
+                new NewUserDto("Renamed", "User", LocalDate.of(1990, 1, 1), "first@example.com"), null);
+
+        assertThat(userChangeFeedService.getChanges(upToDate.nextCursor(), 10).changes())
+                .extracting(UserChangeDto::id).containsExactly(first.id());
+    }
+}
@@ -0,0 +1,71 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.NewCardInfoDto;
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "application.config.auth-url=http://dummy",
+        "application.export.fetch-size=2"
+})
+class UserExportTest extends AbstractApplicationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exportUsers_shouldStreamEveryUserWithCards_acrossSeveralFetches() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            UserDto user = restTemplate.postForEntity("/v1/users",
+                    new NewUserDto("User" + i, "Export", LocalDate.of(1990, 1, 1), "user" + i + "@example.com"),
+                    UserDto.class).getBody();
+            restTemplate.postForEntity("/v1/users/" + user.id() + "/cards",
+                    new NewCardInfoDto("4000-0000-0000-000" + i, "USER EXPORT", LocalDate.now().plusYears(2)),
+                    Object.class);
+        }
+
+        ResponseEntity<byte[]> response = restTemplate.getForEntity("/v1/users/export?format=CSV", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String[] lines = decode(response.getBody()).split("\n");
+        assertThat(lines).hasSize(6);
+        assertThat(lines[0]).startsWith("user_id,name");
+        assertThat(String.join("\n", lines)).contains("user0@example.com", "4000-0000-0000-0004");
+    }
+
+    private static String decode(byte[] body) throws IOException {
+        // the client may already have undone the Content-Encoding
+        boolean gzipped = body.length > 1 && (body[0] & 0xff) == 0x1f && (body[1] & 0xff) == 0x8b;
+        try (InputStream in = gzipped ? new GZIPInputStream(new ByteArrayInputStream(body)) : new ByteArrayInputStream(body)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
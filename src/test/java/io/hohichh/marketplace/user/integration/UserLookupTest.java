@@ -0,0 +1,88 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.dto.UserLookupRequest;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "application.config.auth-url=http://dummy"
+})
+class UserLookupTest extends AbstractApplicationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(java.util.Objects::nonNull)
+                .forEach(org.springframework.cache.Cache::clear);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void lookupUsers_shouldReturnExistingUsersInRequestOrder_andServeRepeatsFromCache() {
+        UUID first = createUser("first@example.com");
+        UUID second = createUser("second@example.com");
+        UUID unknown = UUID.randomUUID();
+
+        List<UserWithCardsDto> users = lookup(List.of(second, unknown, first));
+
+        assertThat(users).extracting(UserWithCardsDto::id).containsExactly(second, first);
+
+        clearInvocations(userRepository, cardRepository);
+        assertThat(lookup(List.of(first, second))).hasSize(2);
+        assertThat(userService.getUserById(first).id()).isEqualTo(first);
+
+        verify(userRepository, never()).findAllWithCardsByIdIn(any());
+        verify(userRepository, never()).findById(any());
+    }
+
+    private UUID createUser(String email) {
+        ResponseEntity<UserDto> response = restTemplate.postForEntity("/v1/users",
+                new NewUserDto("Lookup", "User", LocalDate.of(1990, 1, 1), email), UserDto.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response.getBody().id();
+    }
+
+    private List<UserWithCardsDto> lookup(List<UUID> ids) {
+        ResponseEntity<List<UserWithCardsDto>> response = restTemplate.exchange("/v1/users:lookup",
+                HttpMethod.POST, new HttpEntity<>(new UserLookupRequest(ids)),
+                new ParameterizedTypeReference<>() { });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
@@ -12,12 +12,15 @@ import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -93,4 +96,37 @@ class UserRegistrationTest extends AbstractApplicationTest {
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.detail").value("Login already exists")); // Или как у вас настроено в ExceptionHandler
     }
-}
\ No newline at end of file
+
+    @Test
+    void registerUser_shouldReplayFirstResponse_andCallAuthServiceOnce_whenRetriedWithIdempotencyKey() throws Exception {
+        NewUserCredsDto requestDto = new NewUserCredsDto(
+                "Retry", "Smith", LocalDate.of(1990, 1, 1),
+                "retry@test.com", "retry_login", "password"
+        );
+        String idempotencyKey = UUID.randomUUID().toString();
+
+        stubFor(WireMock.post(urlEqualTo("/api/v1/auth/credentials"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"userId\": \"" + UUID.randomUUID() + "\"}")));
+
+        MvcResult first = mockMvc.perform(post("/v1/registration/users")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        MvcResult retry = mockMvc.perform(post("/v1/registration/users")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        verify(1, postRequestedFor(urlEqualTo("/api/v1/auth/credentials")));
+    }
+}
@@ -0,0 +1,251 @@
+package io.hohichh.marketplace.user.integration;
+
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.NewCardInfoDto;
+import io.hohichh.marketplace.user.dto.NewUserDto;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
+import io.hohichh.marketplace.user.exception.ResourceCreationConflictException;
+import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
+import io.hohichh.marketplace.user.service.ETags;
+import io.hohichh.marketplace.user.service.UserService;
+import io.hohichh.marketplace.user.webclient.AuthServiceClient;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static io.hohichh.marketplace.user.integration.StatementBudget.assertStatements;
+import static io.hohichh.marketplace.user.integration.StatementBudget.assertStatementsAndFailure;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the number of JDBC statements of every {@link UserService} method with empty Spring and Hibernate caches.
+ * A failing budget means a change added or removed queries; update the number only if that was intended.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "application.config.auth-url=http://dummy",
+        "application.statement-metrics.response-header=true"
+})
+class UserServiceStatementBudgetTest extends AbstractApplicationTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2030, 6, 15);
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private AuthServiceClient authClient;
+
+    private UserDto user;
+    private CardInfoDto card;
+
+    @BeforeEach
+    void setUp() {
+        when(clock.instant()).thenReturn(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC));
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+
+        user = userService.createUser(newUser("budget@example.com"));
+        card = userService.createCardForUser(user.id(), newCard("4000000000000001"));
+        clearCaches();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clearCaches();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void registerUser() {
+        assertStatements(2, () -> userService.registerUser(new NewUserCredsDto(
+                "New", "User", LocalDate.of(1990, 1, 1), "registered@example.com", "login", "password")));
+    }
+
+    @Test
+    void createUser() {
+        assertStatements(2, () -> userService.createUser(newUser("created@example.com")));
+    }
+
+    @Test
+    void createUser_withTakenEmail() {
+        assertThat(assertStatementsAndFailure(1, () -> userService.createUser(newUser(user.email()))))
+                .isInstanceOf(ResourceCreationConflictException.class);
+    }
+
+    @Test
+    void deleteUser() {
+        assertStatements(4, () -> userService.deleteUser(user.id()));
+    }
+
+    @Test
+    void updateUser() {
+        assertStatements(3, () -> userService.updateUser(user.id(), newUser("updated@example.com"), null));
+    }
+
+    @Test
+    void getUserById() {
+        // the user joined with its cards
+        assertStatements(1, () -> userService.getUserById(user.id()));
+    }
+
+    @Test
+    void getUsersByIds() {
+        assertStatements(1, () -> userService.getUsersByIds(List.of(user.id(), UUID.randomUUID())));
+    }
+
+    @Test
+    void userExists() {
+        assertStatements(1, () -> userService.userExists(user.id()));
+    }
+
+    @Test
+    void getUserByEmail() {
+        // the user by email, its cards through cardRepository.findByUserId and the same cards again for User.cards
+        assertStatements(3, () -> userService.getUserByEmail(user.email()));
+    }
+
+    @Test
+    void getAllUsers() {
+        assertStatements(1, () -> userService.getAllUsers(PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void getUsersWithBirthdayToday() {
+        assertStatements(1, () -> userService.getUsersWithBirthdayToday());
+    }
+
+    @Test
+    void getUsersBySearchTerm() {
+        assertStatements(1, () -> userService.getUsersBySearchTerm("budget", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void createCardForUser() {
+        assertStatements(3, () -> userService.createCardForUser(user.id(), newCard("4000000000000002")));
+    }
+
+    @Test
+    void createCardForUser_withUnknownUser() {
+        assertThat(assertStatementsAndFailure(1,
+                () -> userService.createCardForUser(UUID.randomUUID(), newCard("4000000000000002"))))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void deleteCard() {
+        assertStatements(2, () -> userService.deleteCard(card.id()));
+    }
+
+    @Test
+    void getCardById() {
+        assertStatements(1, () -> userService.getCardById(card.id()));
+    }
+
+    @Test
+    void getCardById_whenOwnerCardsAreCached() {
+        userService.getCardsByUserId(user.id());
+
+        assertStatements(0, () -> userService.getCardById(card.id()));
+    }
+
+    @Test
+    void getCardByNumber() {
+        assertStatements(1, () -> userService.getCardByNumber(card.cardNumber()));
+    }
+
+    @Test
+    void getCardsByUserId() {
+        assertStatements(1, () -> userService.getCardsByUserId(user.id()));
+    }
+
+    @Test
+    void getExpiredCards() {
+        assertStatements(1, () -> userService.getExpiredCards());
+    }
+
+    @Test
+    void request_shouldReportItsStatements_inHeaderAndMetrics() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/v1/users/{id}", String.class, user.id());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst("Server-Timing")).matches("db;dur=\\d+\\.\\d{3};desc=\"1 statements\"");
+        assertThat(meterRegistry.get("http.server.requests.jdbc.statements")
+                .tag("method", "GET")
+                .tag("uri", "/v1/users/{id}")
+                .summary()
+                .totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void conditionalGet_whenUserIsCached_shouldReturnNotModifiedWithoutStatements() {
+        // the users cache admits a user on the second load
+        userService.getUserById(user.id());
+        String etag = ETags.of(userService.getUserById(user.id()));
+        double statementsBefore = requestStatements().totalAmount();
+        long requestsBefore = requestStatements().count();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> response = restTemplate.exchange(
+                "/v1/users/{id}", HttpMethod.GET, new HttpEntity<>(headers), String.class, user.id());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(response.getBody()).isNull();
+        assertThat(requestStatements().count()).isEqualTo(requestsBefore + 1);
+        assertThat(requestStatements().totalAmount()).as("JDBC statements").isEqualTo(statementsBefore);
+    }
+
+    private DistributionSummary requestStatements() {
+        return DistributionSummary.builder("http.server.requests.jdbc.statements")
+                .tag("method", "GET")
+                .tag("uri", "/v1/users/{id}")
+                .register(meterRegistry);
+    }
+
+    private void clearCaches() {
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(java.util.Objects::nonNull)
+                .forEach(org.springframework.cache.Cache::clear);
+    }
+
+    private static NewUserDto newUser(String email) {
+        return new NewUserDto("Budget", "User", TODAY.minusYears(30), email);
+    }
+
+    private static NewCardInfoDto newCard(String number) {
+        return new NewCardInfoDto(number, "BUDGET USER", TODAY.plusYears(3));
+    }
+}
@@ -4,7 +4,10 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @TestConfiguration
 public class TestClockConfiguration {
@@ -12,6 +15,10 @@ public class TestClockConfiguration {
     @Bean
     @Primary
     public Clock testClock() {
-        return mock(Clock.class);
+        Clock clock = mock(Clock.class);
+        // tells the current time in UTC until a test fixes it
+        when(clock.instant()).thenAnswer(invocation -> Instant.now());
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        return clock;
     }
-}
\ No newline at end of file
+}
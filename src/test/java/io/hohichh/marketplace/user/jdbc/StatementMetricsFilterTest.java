@@ -0,0 +1,82 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import io.hohichh.marketplace.user.config.StatementMetricsProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementMetricsFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void doFilter_shouldRecordStatementsOfRequest_byEndpoint() throws Exception {
+        StatementMetricsFilter filter = new StatementMetricsFilter(meterRegistry,
+                new StatementMetricsProperties(true, false, 20));
+
+        MockHttpServletResponse response = handle(filter, "/v1/users/{id}", 3);
+
+        assertThat(meterRegistry.get("http.server.requests.jdbc.statements")
+                .tags("method", "GET", "uri", "/v1/users/{id}")
+                .summary()
+                .totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("http.server.requests.jdbc.time")
+                .tags("method", "GET", "uri", "/v1/users/{id}")
+                .timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(6);
+        assertThat(response.getHeader("Server-Timing")).isNull();
+    }
+
+    @Test
+    void doFilter_shouldTagUnmatchedRequestsAsUnknown_andAddHeaderIfEnabled() throws Exception {
+        StatementMetricsFilter filter = new StatementMetricsFilter(meterRegistry,
+                new StatementMetricsProperties(true, true, 20));
+
+        MockHttpServletResponse response = handle(filter, null, 2);
+
+        assertThat(meterRegistry.get("http.server.requests.jdbc.statements")
+                .tags("method", "GET", "uri", "UNKNOWN")
+                .summary()
+                .count()).isEqualTo(1);
+        assertThat(response.getHeader("Server-Timing")).isEqualTo("db;dur=4.000;desc=\"2 statements\"");
+    }
+
+    @Test
+    void doFilter_shouldKeepHeaderSetBeforeBodyWasWritten() throws Exception {
+        StatementMetricsFilter filter = new StatementMetricsFilter(meterRegistry,
+                new StatementMetricsProperties(true, true, 20));
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            StatementScope.record(1_000_000);
+            ((HttpServletResponse) res).setHeader("Server-Timing", "db;dur=1.000;desc=\"1 statements\"");
+            StatementScope.record(1_000_000);
+        });
+
+        assertThat(response.getHeader("Server-Timing")).isEqualTo("db;dur=1.000;desc=\"1 statements\"");
+    }
+
+    private static MockHttpServletResponse handle(StatementMetricsFilter filter, String pattern, int statements)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users/42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            for (int i = 0; i < statements; i++) {
+                StatementScope.record(2_000_000);
+            }
+            if (pattern != null) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            }
+        });
+        return response;
+    }
+}
@@ -0,0 +1,51 @@
+package io.hohichh.marketplace.user.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementScopeTest {
+
+    @Test
+    void record_shouldCountTowardsEveryOpenScope() {
+        try (StatementScope outer = StatementScope.open()) {
+            StatementScope.record(1_000_000);
+            try (StatementScope inner = StatementScope.open()) {
+                StatementScope.record(2_000_000);
+                StatementScope.record(3_000_000);
+
+                assertThat(inner.statements()).isEqualTo(2);
+                assertThat(inner.elapsed()).isEqualTo(Duration.ofMillis(5));
+            }
+            StatementScope.record(4_000_000);
+
+            assertThat(outer.statements()).isEqualTo(4);
+            assertThat(outer.elapsed()).isEqualTo(Duration.ofMillis(10));
+        }
+        assertThat(StatementScope.current()).isNull();
+    }
+
+    @Test
+    void record_shouldBeIgnored_withoutOpenScope() {
+        StatementScope.record(1_000_000);
+
+        try (StatementScope scope = StatementScope.open()) {
+            assertThat(scope.statements()).isZero();
+        }
+    }
+
+    @Test
+    void close_shouldRejectClosingOuterScopeFirst() {
+        StatementScope outer = StatementScope.open();
+        StatementScope inner = StatementScope.open();
+
+        assertThatThrownBy(outer::close).isInstanceOf(IllegalStateException.class);
+
+        inner.close();
+        outer.close();
+        assertThat(StatementScope.current()).isNull();
+    }
+}
@@ -0,0 +1,27 @@
+package io.hohichh.marketplace.user.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogRateLimiterTest {
+
+    @Test
+    void tryAcquire_shouldPermitUpToLimitPerWindow_andReportSuppressedLinesAfterwards() {
+        AtomicLong now = new AtomicLong();
+        LogRateLimiter limiter = new LogRateLimiter(2, Duration.ofSeconds(1), now::get);
+
+        assertThat(limiter.tryAcquire()).isZero();
+        assertThat(limiter.tryAcquire()).isZero();
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isZero();
+        assertThat(limiter.tryAcquire()).isEqualTo(-1);
+    }
+}
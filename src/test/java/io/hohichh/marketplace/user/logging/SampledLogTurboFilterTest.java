@@ -0,0 +1,64 @@
+package io.hohichh.marketplace.user.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SampledLogTurboFilterTest {
+
+    private final SampledLogTurboFilter filter = new SampledLogTurboFilter();
+    private final Logger logger = new LoggerContext().getLogger("test");
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void decide_shouldDropSampledInfoLines_onlyForUnsampledRequests() {
+        MDC.put(LogSampling.MDC_KEY, "false");
+        assertThat(decide(LogSampling.SAMPLED, Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(null, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(LogSampling.SAMPLED, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+
+        MDC.put(LogSampling.MDC_KEY, "true");
+        assertThat(decide(LogSampling.SAMPLED, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+
+        MDC.remove(LogSampling.MDC_KEY);
+        assertThat(decide(LogSampling.SAMPLED, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void requestFilter_shouldExposeDecisionDuringRequest_andClearItAfterwards() throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                seen.set(MDC.get(LogSampling.MDC_KEY));
+            }
+        };
+
+        new RequestLogSamplingFilter(0.0).doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), chain);
+
+        assertThat(seen.get()).isEqualTo("false");
+        assertThat(MDC.get(LogSampling.MDC_KEY)).isNull();
+    }
+
+    private FilterReply decide(Marker marker, Level level) {
+        return filter.decide(marker, logger, level, "message", null, null);
+    }
+}
@@ -0,0 +1,55 @@
+package io.hohichh.marketplace.user.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void next_shouldEncodeVersionVariantAndTimestamp() {
+        UUID uuid = new UuidV7Generator(() -> NOW).next();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+    }
+
+    @Test
+    void next_shouldIncreaseStrictly_withinOneMillisecond_andWhenClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        UuidV7Generator generator = new UuidV7Generator(clock::get);
+
+        List<UUID> generated = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.set(NOW - 1_000);
+            }
+            generated.add(generator.next());
+        }
+
+        // PostgreSQL orders uuid values by their unsigned bytes, like the string form
+        List<String> asText = generated.stream().map(UUID::toString).toList();
+        assertThat(asText).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void next_shouldRestartCounter_whenClockAdvances() {
+        AtomicLong clock = new AtomicLong(NOW);
+        UuidV7Generator generator = new UuidV7Generator(clock::get);
+        generator.next();
+
+        clock.set(NOW + 1);
+        UUID uuid = generator.next();
+
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(NOW + 1);
+        assertThat(uuid.getMostSignificantBits() & 0xfff).isLessThan(2048);
+    }
+}
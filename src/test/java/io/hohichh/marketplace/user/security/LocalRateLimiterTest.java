@@ -0,0 +1,47 @@
+package io.hohichh.marketplace.user.security;
+
+import io.hohichh.marketplace.user.config.RateLimitProperties.Limit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final LocalRateLimiter rateLimiter = new LocalRateLimiter(4, now::get);
+
+    @Test
+    void tryAcquire_shouldPermitBurst_thenRefillOneTokenPerInterval() {
+        Limit limit = new Limit(3, Duration.ofSeconds(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("user:a", limit)).isZero();
+        }
+        assertThat(rateLimiter.tryAcquire("user:a", limit)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(rateLimiter.tryAcquire("user:b", limit)).isZero();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(rateLimiter.tryAcquire("user:a", limit)).isZero();
+        assertThat(rateLimiter.tryAcquire("user:a", limit)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_shouldForgetFullBuckets_afterSweepInterval() {
+        Limit limit = new Limit(10, Duration.ofSeconds(1));
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.tryAcquire("user:" + i, limit);
+        }
+        assertThat(rateLimiter.size()).isEqualTo(100);
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.tryAcquire("other:" + i, limit);
+        }
+
+        assertThat(rateLimiter.size()).isEqualTo(100);
+    }
+}
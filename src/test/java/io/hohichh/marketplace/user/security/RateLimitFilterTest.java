@@ -0,0 +1,92 @@
+package io.hohichh.marketplace.user.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hohichh.marketplace.user.config.RateLimitProperties;
+import io.hohichh.marketplace.user.config.RateLimitProperties.Endpoint;
+import io.hohichh.marketplace.user.config.RateLimitProperties.Limit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final RateLimitProperties properties = new RateLimitProperties(
+            true,
+            RateLimitProperties.Backend.LOCAL,
+            4,
+            "rate-limit:",
+            new Limit(100, Duration.ofSeconds(1)),
+            Map.of("USER", new Limit(5, Duration.ofMinutes(1)), "ADMIN", new Limit(50, Duration.ofMinutes(1))),
+            List.of(new Endpoint("user-by-id", "GET", "/v1/users/{id}", Set.of("USER"), 2, Duration.ofMinutes(1))));
+
+    private final RateLimitFilter filter =
+            new RateLimitFilter(properties, new LocalRateLimiter(4), new ObjectMapper());
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilter_shouldRejectWith429_onceEndpointLimitOfPrincipalIsUsedUp() throws Exception {
+        authenticate("user-1", "ROLE_USER");
+
+        assertThat(get("/api/v1/users/42").getStatus()).isEqualTo(200);
+        assertThat(get("/api/v1/users/43").getStatus()).isEqualTo(200);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse rejected = get("/api/v1/users/44", chain);
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("30");
+        assertThat(rejected.getContentAsString()).contains("Too Many Requests");
+        assertThat(chain.getRequest()).isNull();
+
+        // the role bucket is separate from the endpoint bucket
+        assertThat(get("/api/v1/cards/1").getStatus()).isEqualTo(200);
+        authenticate("user-2", "ROLE_USER");
+        assertThat(get("/api/v1/users/42").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_shouldApplyRoleLimit_andPassAnonymousRequests() throws Exception {
+        authenticate("admin", "ROLE_ADMIN");
+        for (int i = 0; i < 50; i++) {
+            assertThat(get("/api/v1/users/" + i).getStatus()).isEqualTo(200);
+        }
+        assertThat(get("/api/v1/users/51").getStatus()).isEqualTo(429);
+
+        SecurityContextHolder.clearContext();
+        for (int i = 0; i < 200; i++) {
+            assertThat(get("/api/v1/users").getStatus()).isEqualTo(200);
+        }
+    }
+
+    private void authenticate(String subject, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                subject, null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+
+    private MockHttpServletResponse get(String uri) throws Exception {
+        return get(uri, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse get(String uri, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setContextPath("/api");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,81 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.config.ApplicationCacheProperties;
+import io.hohichh.marketplace.user.dto.UserDto;
+import io.hohichh.marketplace.user.mapper.UserMapper;
+import io.hohichh.marketplace.user.model.User;
+import io.hohichh.marketplace.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BirthdayListPrecomputerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(BirthdayListPrecomputer.CACHE_NAME);
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-15T23:55:00Z"), ZoneId.of("UTC"));
+
+    private BirthdayListPrecomputer precomputer;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationCacheProperties properties = new ApplicationCacheProperties(
+                Map.of(),
+                null,
+                new ApplicationCacheProperties.Stampede(Set.of(), false, null, null, null),
+                new ApplicationCacheProperties.BirthdayPrecompute(true, "0 55 23 * * *"),
+                null,
+                null,
+                null,
+                0);
+        precomputer = new BirthdayListPrecomputer(userRepository, userMapper, cacheManager, clock, properties);
+    }
+
+    @Test
+    void precomputeNextDay_shouldCacheTomorrowsListUnderItsDate() {
+        LocalDate tomorrow = LocalDate.of(2025, 1, 16);
+        User user = new User();
+        UserDto userDto = new UserDto(UUID.randomUUID(), "John", "Doe", LocalDate.of(1990, 1, 16), "john@example.com");
+        when(userRepository.findUsersWithBirthDayToday(tomorrow)).thenReturn(List.of(user));
+        when(userMapper.toUserDto(user)).thenReturn(userDto);
+
+        precomputer.precomputeNextDay();
+
+        assertThat(cacheManager.getCache(BirthdayListPrecomputer.CACHE_NAME).get(tomorrow, List.class))
+                .containsExactly(userDto);
+    }
+
+    @Test
+    void precomputeTodayIfAbsent_shouldKeepExistingEntry() {
+        LocalDate today = LocalDate.of(2025, 1, 15);
+        cacheManager.getCache(BirthdayListPrecomputer.CACHE_NAME).put(today, List.of());
+
+        precomputer.precomputeTodayIfAbsent();
+
+        verify(userRepository, never()).findUsersWithBirthDayToday(today);
+    }
+}
@@ -0,0 +1,51 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.config.CardPartitioningProperties;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class CardPartitionMaintainerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-06-15T03:00:00Z"), ZoneId.of("UTC"));
+
+    @Test
+    void maintain_shouldCreatePartitionsAheadAndKeepExpiredOnesByDefault() {
+        CardPartitionMaintainer maintainer = new CardPartitionMaintainer(jdbcTemplate, clock,
+                new CardPartitioningProperties(true, "0 0 3 1 * *", 10, false, 1, false), entityManagerFactory);
+
+        maintainer.maintain();
+
+        verify(jdbcTemplate).queryForObject("SELECT create_card_info_partitions(?, ?)", Integer.class, 2025, 2035);
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void maintain_shouldDetachPartitionsPastRetention() {
+        CardPartitionMaintainer maintainer = new CardPartitionMaintainer(jdbcTemplate, clock,
+                new CardPartitioningProperties(true, "0 0 3 1 * *", 10, true, 1, true), entityManagerFactory);
+
+        maintainer.maintain();
+
+        verify(jdbcTemplate).queryForObject("SELECT detach_expired_card_info_partitions(?, ?)", Integer.class,
+                LocalDate.of(2024, 1, 1), true);
+    }
+}
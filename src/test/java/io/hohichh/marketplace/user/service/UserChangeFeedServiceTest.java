@@ -0,0 +1,55 @@
+package io.hohichh.marketplace.user.service;
+
+import io.hohichh.marketplace.user.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeFeedServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private UserChangeFeedService userChangeFeedService;
+
+    @Test
+    void cursor_shouldSurviveRoundTrip() {
+        UserChangeFeedService.Cursor cursor = new UserChangeFeedService.Cursor(4_294_967_345L, UUID.randomUUID());
+
+        assertThat(UserChangeFeedService.Cursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void getChanges_shouldRejectCursorNotIssuedByFeed() {
+        String negative = Base64.getUrlEncoder().encodeToString(
+                ("-1:" + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[]{"not a cursor", "MTIz", negative}) {
+            assertThatThrownBy(() -> userChangeFeedService.getChanges(cursor, 10))
+                    .isInstanceOf(InvalidRequestException.class);
+        }
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void getChanges_shouldRejectLimitOutOfRange() {
+        assertThatThrownBy(() -> userChangeFeedService.getChanges(null, 0))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> userChangeFeedService.getChanges(null, UserChangeFeedService.MAX_LIMIT + 1))
+                .isInstanceOf(InvalidRequestException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,58 @@
+package io.hohichh.marketplace.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.hohichh.marketplace.user.dto.CardInfoDto;
+import io.hohichh.marketplace.user.dto.UserWithCardsDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final UUID userId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private final UUID cardId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Test
+    void csv_shouldWriteOneRowPerCard_andQuoteSpecialCharacters() throws Exception {
+        StringWriter out = new StringWriter();
+        UserExportWriter writer = new UserExportWriter(UserExportFormat.CSV, out, objectMapper);
+        UserWithCardsDto user = new UserWithCardsDto(userId, "John, Jr.", "O\"Neil", LocalDate.of(1990, 1, 2),
+                "john@example.com", List.of(new CardInfoDto(cardId, userId, "4111", "JOHN", LocalDate.of(2030, 1, 1))));
+        UserWithCardsDto withoutCards = new UserWithCardsDto(cardId, "Jane", null, null, "jane@example.com", List.of());
+
+        writer.writeHeader();
+        writer.write(user);
+        writer.write(withoutCards);
+
+        assertThat(out.toString().split("\n")).containsExactly(
+                "user_id,name,surname,birth_date,email,card_id,card_number,card_holder,card_expiration_date",
+                userId + ",\"John, Jr.\",\"O\"\"Neil\",1990-01-02,john@example.com," + cardId + ",4111,JOHN,2030-01-01",
+                cardId + ",Jane,,,jane@example.com,,,,");
+    }
+
+    @Test
+    void ndjson_shouldWriteOneJsonObjectPerLine() throws Exception {
+        StringWriter out = new StringWriter();
+        UserExportWriter writer = new UserExportWriter(UserExportFormat.NDJSON, out, objectMapper);
+        UserWithCardsDto user = new UserWithCardsDto(userId, "John", null, null, "john@example.com", List.of());
+
+        writer.writeHeader();
+        writer.write(user);
+        writer.write(user);
+
+        String[] lines = out.toString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], UserWithCardsDto.class)).isEqualTo(user);
+    }
+}
@@ -1,9 +1,13 @@
 package io.hohichh.marketplace.user.service;
 
+import io.hohichh.marketplace.user.cache.BirthdayListCache;
+import io.hohichh.marketplace.user.cache.CacheBatchOperations;
+import io.hohichh.marketplace.user.cache.UserCardsCache;
 import io.hohichh.marketplace.user.dto.*;
 import io.hohichh.marketplace.user.dto.registration.AuthServiceResponse;
 import io.hohichh.marketplace.user.dto.registration.NewUserCredsDto;
 import io.hohichh.marketplace.user.dto.registration.UserCredsDto;
+import io.hohichh.marketplace.user.exception.PreconditionFailedException;
 import io.hohichh.marketplace.user.exception.ResourceCreationConflictException;
 import io.hohichh.marketplace.user.exception.ResourceNotFoundException;
 import io.hohichh.marketplace.user.mapper.CardInfoMapper;
@@ -27,6 +31,7 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -54,6 +59,18 @@ class UserServiceTest {
     @Mock
     private AuthServiceClient authClient;
 
+    @Mock
+    private CacheBatchOperations cacheBatchOperations;
+
+    @Mock
+    private ExistenceFilters existenceFilters;
+
+    @Mock
+    private UserCardsCache userCardsCache;
+
+    @Mock
+    private BirthdayListCache birthdayListCache;
+
     @Mock
     private Clock clock;
     private final LocalDate frozenDate = LocalDate.of(2025, 1, 15);
@@ -90,7 +107,7 @@ class UserServiceTest {
         );
 
         when(userMapper.toUser(any(NewUserDto.class))).thenReturn(new User());
-        when(userRepository.save(any(User.class))).thenReturn(new User());
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(new User());
         when(userMapper.toUserDto(any(User.class))).thenReturn(savedUser);
 
         UserCredsDto userCredsDto = new UserCredsDto(savedUser.id(),
@@ -104,7 +121,7 @@ class UserServiceTest {
         assertThat(result.email()).isEqualTo(fullDto.email());
 
         verify(userMapper).toUser(any(NewUserDto.class));
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
         verify(authClient).createCredentials(argThat(creds ->
                 creds.login().equals("login") &&
                         creds.userId().equals(savedUser.id())
@@ -125,7 +142,7 @@ class UserServiceTest {
 
 
         when(userMapper.toUser(any(NewUserDto.class))).thenReturn(userEntity);
-        when(userRepository.save(any(User.class))).thenReturn(savedUserEntity);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(savedUserEntity);
         when(userMapper.toUserDto(any(User.class))).thenReturn(expectedUserDto);
 
         UserDto result = userService.createUser(newUserDto);
@@ -134,7 +151,7 @@ class UserServiceTest {
         assertEquals(expectedUserDto.email(), result.email());
 
         verify(userMapper).toUser(newUserDto);
-        verify(userRepository).save(userEntity);
+        verify(userRepository).saveAndFlush(userEntity);
         verify(userMapper).toUserDto(savedUserEntity);
     }
 
@@ -152,37 +169,55 @@ class UserServiceTest {
 
         verify(userRepository).findByEmail(newUserDto.email());
         verify(userMapper, never()).toUser(any(NewUserDto.class));
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).saveAndFlush(any());
         verify(userMapper, never()).toUserDto(any());
     }
+
+    @Test
+    void createUser_shouldSkipEmailQuery_whenFilterProvesEmailAbsent() {
+        NewUserDto newUserDto = new NewUserDto("John", "Doe", null, "john.doe@example.com");
+        User userEntity = new User();
+
+        when(existenceFilters.emailDefinitelyAbsent(newUserDto.email())).thenReturn(true);
+        when(userMapper.toUser(newUserDto)).thenReturn(userEntity);
+        when(userRepository.saveAndFlush(userEntity)).thenReturn(userEntity);
+
+        userService.createUser(newUserDto);
+
+        verify(userRepository, never()).findByEmail(any());
+        verify(existenceFilters).recordEmail(newUserDto.email());
+    }
     //====================================================================
     //DELETE USER TESTS
     @Test
     void deleteUser_shouldCallDelete_whenUserExists() {
         UUID userId = UUID.randomUUID();
 
-        when(userRepository.existsById(userId)).thenReturn(true);
+        User user = new User();
+        user.setBirthDate(LocalDate.of(1990, 6, 15));
 
-        doNothing().when(userRepository).deleteById(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         userService.deleteUser(userId);
 
-        verify(userRepository).existsById(userId);
-        verify(userRepository).deleteById(userId);
+        verify(userRepository).findById(userId);
+        verify(userRepository).delete(user);
+        verify(birthdayListCache).evictListsIncluding(LocalDate.of(1990, 6, 15));
     }
 
     @Test
     void deleteUser_shouldThrowResourceNotFoundException_whenUserDoesNotExist() {
         UUID userId = UUID.randomUUID();
 
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             userService.deleteUser(userId);
         });
 
-        verify(userRepository).existsById(userId);
-        verify(userRepository, never()).deleteById(any());
+        verify(userRepository).findById(userId);
+        verify(userRepository, never()).delete(any());
+        verifyNoInteractions(birthdayListCache);
     }
 
     //====================================================================
@@ -202,7 +237,7 @@ class UserServiceTest {
         when(userRepository.save(existingUserEntity)).thenReturn(existingUserEntity);
         when(userMapper.toUserDto(existingUserEntity)).thenReturn(expectedUserDto);
 
-        UserDto updatedUser = userService.updateUser(userId, userToUpdate);
+        UserDto updatedUser = userService.updateUser(userId, userToUpdate, null);
 
         assertNotNull(updatedUser);
         assertEquals(expectedUserDto.email(), updatedUser.email());
@@ -215,6 +250,69 @@ class UserServiceTest {
 
     }
 
+    @Test
+    void updateUser_shouldEvictBirthdayListsOfPreviousAndNewBirthDate() {
+        UUID userId = UUID.randomUUID();
+        NewUserDto userToUpdate = new NewUserDto("Jane", "Doe", LocalDate.of(1990, 6, 16), "jane@gmail.com");
+        User existingUserEntity = new User();
+        existingUserEntity.setBirthDate(LocalDate.of(1990, 6, 15));
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUserEntity));
+        doAnswer(invocation -> {
+            existingUserEntity.setBirthDate(userToUpdate.birthDate());
+            return null;
+        }).when(userMapper).updateUserFromDto(userToUpdate, existingUserEntity);
+        when(userRepository.save(existingUserEntity)).thenReturn(existingUserEntity);
+
+        userService.updateUser(userId, userToUpdate, null);
+
+        verify(birthdayListCache).evictListsIncluding(LocalDate.of(1990, 6, 15), LocalDate.of(1990, 6, 16));
+    }
+
+    @Test
+    void updateUser_shouldUpdate_whenIfMatchMatchesCurrentState() {
+        UUID userId = UUID.randomUUID();
+        NewUserDto userToUpdate = new NewUserDto("Jane", "Doe",
+                null, "jane@gmail.com");
+
+        User existingUserEntity = new User();
+        UserWithCardsDto currentState = new UserWithCardsDto(userId, "John", "Doe",
+                null, "john@gmail.com", List.of());
+        UserDto expectedUserDto = new UserDto(userId, "Jane", "Doe",
+                null, "jane@gmail.com");
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUserEntity));
+        when(userMapper.toUserWithCardsDto(existingUserEntity)).thenReturn(currentState);
+        when(userRepository.save(existingUserEntity)).thenReturn(existingUserEntity);
+        when(userMapper.toUserDto(existingUserEntity)).thenReturn(expectedUserDto);
+
+        UserDto updatedUser = userService.updateUser(userId, userToUpdate, ETags.of(currentState));
+
+        assertEquals(expectedUserDto, updatedUser);
+        verify(userMapper).updateUserFromDto(userToUpdate, existingUserEntity);
+        verify(userRepository).save(existingUserEntity);
+    }
+
+    @Test
+    void updateUser_shouldThrowPreconditionFailedException_whenIfMatchIsStale() {
+        UUID userId = UUID.randomUUID();
+        NewUserDto userToUpdate = new NewUserDto("Jane", "Doe",
+                null, "jane@gmail.com");
+
+        User existingUserEntity = new User();
+        UserWithCardsDto currentState = new UserWithCardsDto(userId, "John", "Doe",
+                null, "john@gmail.com", List.of());
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUserEntity));
+        when(userMapper.toUserWithCardsDto(existingUserEntity)).thenReturn(currentState);
+
+        assertThatThrownBy(() -> userService.updateUser(userId, userToUpdate, "\"stale\""))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(userMapper, never()).updateUserFromDto(any(), any());
+        verify(userRepository, never()).save(any());
+    }
+
     @Test
     void updateUser_shouldThrowResourceNotFoundException_whenUserDoesNotExist() {
         UUID userId = UUID.randomUUID();
@@ -224,7 +322,7 @@ class UserServiceTest {
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () ->
-            userService.updateUser(userId, newUser));
+            userService.updateUser(userId, newUser, null));
 
         verify(userRepository).findById(userId);
         verify(userMapper, never()).updateUserFromDto(any(), any());
@@ -249,7 +347,7 @@ class UserServiceTest {
         when(userRepository.findByEmail(userToUpdate.email())).thenReturn(Optional.of(anotherUserWithSameEmail));
 
 
-        assertThatThrownBy(() -> userService.updateUser(userId, userToUpdate))
+        assertThatThrownBy(() -> userService.updateUser(userId, userToUpdate, null))
                 .isInstanceOf(ResourceCreationConflictException.class)
                 .hasMessage("Email " + userToUpdate.email() + " is already in use by another user.");
 
@@ -268,13 +366,11 @@ class UserServiceTest {
 
         UUID userId = UUID.randomUUID();
         User userEntity = new User();
-        List<CardInfo> cardList = List.of(new CardInfo()); // Мок-список карт
         UserWithCardsDto expectedDto = new UserWithCardsDto(userId, "Test",
                 null, null, "test@test.com", List.of());
 
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(userEntity));
-        when(cardRepository.findByUserId(userId)).thenReturn(cardList);
+        when(userRepository.findWithCardsById(userId)).thenReturn(Optional.of(userEntity));
         when(userMapper.toUserWithCardsDto(userEntity)).thenReturn(expectedDto);
 
 
@@ -282,24 +378,43 @@ class UserServiceTest {
 
         assertNotNull(result);
         assertEquals(expectedDto.id(), result.id());
-        verify(userRepository).findById(userId);
-        verify(cardRepository).findByUserId(userId);
+        verify(userRepository).findWithCardsById(userId);
+        verify(userRepository, never()).findById(any());
         verify(userMapper).toUserWithCardsDto(userEntity);
     }
 
+    @Test
+    void userExists_shouldSkipDatabase_whenUserIsCached() {
+        UUID userId = UUID.randomUUID();
+        when(cacheBatchOperations.getAll(eq("users"), eq(List.of(userId)), eq(UserWithCardsDto.class)))
+                .thenReturn(Map.of(userId, new UserWithCardsDto(userId, "Test", null, null, "test@test.com", List.of())));
+
+        assertTrue(userService.userExists(userId));
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void userExists_shouldQueryDatabase_whenUserIsNotCached() {
+        UUID userId = UUID.randomUUID();
+        when(cacheBatchOperations.getAll(eq("users"), eq(List.of(userId)), eq(UserWithCardsDto.class)))
+                .thenReturn(Map.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        assertFalse(userService.userExists(userId));
+    }
+
     @Test
     void getUserById_shouldThrowResourceNotFoundException_whenUserDoesNotExist() {
 
         UUID userId = UUID.randomUUID();
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.findWithCardsById(userId)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> {
             userService.getUserById(userId);
         });
 
 
-        verify(userRepository).findById(userId);
-        verify(cardRepository, never()).findByUserId(any());
+        verify(userRepository).findWithCardsById(userId);
         verify(userMapper, never()).toUserWithCardsDto(any());
     }
 
@@ -465,6 +580,7 @@ class UserServiceTest {
         assertNotNull(cardEntity.getUser());
         verify(cardRepository).save(cardEntity);
         verify(cardInfoMapper).toCardInfoDto(savedCardEntity);
+        verify(userCardsCache).evictOwner(userId);
     }
 
     @Test
@@ -504,6 +620,24 @@ class UserServiceTest {
         verify(userRepository).findById(userId);
         verify(cardRepository).findByNumber(number);
         verify(cardRepository, never()).save(any());
+        verify(userCardsCache, never()).evictOwner(any());
+    }
+
+    @Test
+    void createCardForUser_shouldSkipNumberQuery_whenFilterProvesNumberAbsent() {
+        UUID userId = UUID.randomUUID();
+        NewCardInfoDto newCardDto = new NewCardInfoDto("1234", "Holder", LocalDate.now());
+        CardInfo cardEntity = new CardInfo();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        when(existenceFilters.cardNumberDefinitelyAbsent("1234")).thenReturn(true);
+        when(cardInfoMapper.toCardInfo(newCardDto)).thenReturn(cardEntity);
+        when(cardRepository.save(cardEntity)).thenReturn(cardEntity);
+
+        userService.createCardForUser(userId, newCardDto);
+
+        verify(cardRepository, never()).findByNumber(any());
+        verify(existenceFilters).recordCardNumber("1234");
     }
 
 
@@ -511,40 +645,50 @@ class UserServiceTest {
         //====================================================================
     //DELETE CARD TESTS
     @Test
-    void deleteCard_shouldCallDelete_whenCardExists() {
+    void deleteCard_shouldDeleteAndEvictOwner_whenCardExists() {
         UUID cardId = UUID.randomUUID();
+        UUID ownerId = UUID.randomUUID();
+        User owner = mock(User.class);
+        when(owner.getId()).thenReturn(ownerId);
+        CardInfo cardEntity = new CardInfo();
+        cardEntity.setUser(owner);
 
-        when(cardRepository.existsById(cardId)).thenReturn(true);
-        doNothing().when(cardRepository).deleteById(cardId);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.of(cardEntity));
 
         userService.deleteCard(cardId);
 
-        verify(cardRepository).existsById(cardId);
-        verify(cardRepository).deleteById(cardId);
+        verify(cardRepository).delete(cardEntity);
+        verify(userCardsCache).evictOwner(ownerId);
     }
 
     @Test
     void deleteCard_shouldThrowResourceNotFoundException_whenCardDoesNotExist() {
         UUID cardId = UUID.randomUUID();
 
-        when(cardRepository.existsById(cardId)).thenReturn(false);
+        when(cardRepository.findById(cardId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userService.deleteCard(cardId))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(cardRepository).existsById(cardId);
-        verify(cardRepository, never()).deleteById(any());
+        verify(cardRepository, never()).delete(any());
+        verify(userCardsCache, never()).evictOwner(any());
     }
 
     //GET CARD TESTS
     @Test
-    void getCardById_shouldReturnCardInfoDto_whenCardExists() {
+    void getCardById_shouldLoadAndCacheOwnerCards_whenNotCached() {
         UUID cardId = UUID.randomUUID();
-        CardInfo cardEntity = new CardInfo();
-        CardInfoDto expectedDto = new CardInfoDto(cardId, UUID.randomUUID(), "1234", "Holder", LocalDate.now());
+        UUID ownerId = UUID.randomUUID();
+        List<CardInfo> cardList = List.of(new CardInfo(), new CardInfo());
+        CardInfoDto expectedDto = new CardInfoDto(cardId, ownerId, "1234", "Holder", LocalDate.now());
+        List<CardInfoDto> ownerCards = List.of(
+                new CardInfoDto(UUID.randomUUID(), ownerId, "5678", "Holder", LocalDate.now()),
+                expectedDto
+        );
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.of(cardEntity));
-        when(cardInfoMapper.toCardInfoDto(cardEntity)).thenReturn(expectedDto);
+        when(userCardsCache.find(cardId)).thenReturn(Optional.empty());
+        when(cardRepository.findAllOfOwnerByCardId(cardId)).thenReturn(cardList);
+        when(cardInfoMapper.toCardInfoDtoList(cardList)).thenReturn(ownerCards);
 
         CardInfoDto result = userService.getCardById(cardId);
 
@@ -555,21 +699,33 @@ class UserServiceTest {
                     assertThat(dto.cardNumber()).isEqualTo("1234");
                 });
 
-        verify(cardRepository).findById(cardId);
-        verify(cardInfoMapper).toCardInfoDto(cardEntity);
+        verify(userCardsCache).put(ownerId, ownerCards);
+    }
+
+    @Test
+    void getCardById_shouldNotQuery_whenOwnerCardsAreCached() {
+        UUID cardId = UUID.randomUUID();
+        CardInfoDto cachedDto = new CardInfoDto(cardId, UUID.randomUUID(), "1234", "Holder", LocalDate.now());
+
+        when(userCardsCache.find(cardId)).thenReturn(Optional.of(cachedDto));
+
+        assertThat(userService.getCardById(cardId)).isEqualTo(cachedDto);
+
+        verifyNoInteractions(cardRepository);
     }
 
     @Test
     void getCardById_shouldThrowNotFoundException_whenCardDoesNotExist() {
         UUID cardId = UUID.randomUUID();
 
-        when(cardRepository.findById(cardId)).thenReturn(Optional.empty());
+        when(userCardsCache.find(cardId)).thenReturn(Optional.empty());
+        when(cardRepository.findAllOfOwnerByCardId(cardId)).thenReturn(List.of());
 
         assertThatThrownBy(() -> userService.getCardById(cardId))
                 .isInstanceOf(ResourceNotFoundException.class);
 
-        verify(cardRepository).findById(cardId);
-        verify(cardInfoMapper, never()).toCardInfoDto(any());
+        verify(cardRepository).findAllOfOwnerByCardId(cardId);
+        verify(userCardsCache, never()).put(any(), any());
     }
 
     @Test
@@ -620,7 +776,7 @@ class UserServiceTest {
                 new CardInfoDto(UUID.randomUUID(), userId, "2222", "Holder2", LocalDate.now())
         );
 
-        when(cardRepository.findByUserId(userId)).thenReturn(cardList);
+        when(cardRepository.findAllOfUser(userId)).thenReturn(cardList);
         when(cardInfoMapper.toCardInfoDtoList(cardList)).thenReturn(expectedDtoList);
 
         List<CardInfoDto> result = userService.getCardsByUserId(userId);
@@ -631,8 +787,9 @@ class UserServiceTest {
                 .extracting(CardInfoDto::cardNumber)
                 .containsExactly("1111", "2222");
 
-        verify(cardRepository).findByUserId(userId);
+        verify(cardRepository).findAllOfUser(userId);
         verify(cardInfoMapper).toCardInfoDtoList(cardList);
+        verify(userCardsCache).rememberOwners(expectedDtoList);
     }
 
     @Test
@@ -663,4 +820,40 @@ class UserServiceTest {
         verify(cardRepository).findExpiredCardsNative(frozenDate);
         verify(cardInfoMapper).toCardInfoDtoList(expiredCardList);
     }
-}
\ No newline at end of file
+
+    //====================================================================
+    //LOOKUP USERS TESTS
+    @Test
+    void getUsersByIds_shouldLoadOnlyCacheMisses_andWriteThemBack() {
+        UUID cachedId = UUID.randomUUID();
+        UUID missingId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        UserWithCardsDto cached = new UserWithCardsDto(cachedId, "Cached", null, null, "cached@gmail.com", List.of());
+        UserWithCardsDto loaded = new UserWithCardsDto(missingId, "Loaded", null, null, "loaded@gmail.com", List.of());
+        User loadedEntity = mock(User.class);
+        when(loadedEntity.getId()).thenReturn(missingId);
+
+        when(cacheBatchOperations.getAll("users", List.of(unknownId, missingId, cachedId), UserWithCardsDto.class))
+                .thenReturn(Map.of(cachedId, cached));
+        when(userRepository.findAllWithCardsByIdIn(List.of(unknownId, missingId))).thenReturn(List.of(loadedEntity));
+        when(userMapper.toUserWithCardsDto(loadedEntity)).thenReturn(loaded);
+
+        List<UserWithCardsDto> users = userService.getUsersByIds(List.of(unknownId, missingId, cachedId, missingId));
+
+        assertThat(users).containsExactly(loaded, cached);
+        verify(cacheBatchOperations).putAll("users", Map.of(missingId, loaded));
+    }
+
+    @Test
+    void getUsersByIds_shouldNotQueryDatabase_whenAllUsersAreCached() {
+        UUID cachedId = UUID.randomUUID();
+        UserWithCardsDto cached = new UserWithCardsDto(cachedId, "Cached", null, null, "cached@gmail.com", List.of());
+        when(cacheBatchOperations.getAll("users", List.of(cachedId), UserWithCardsDto.class))
+                .thenReturn(Map.of(cachedId, cached));
+
+        assertThat(userService.getUsersByIds(List.of(cachedId))).containsExactly(cached);
+
+        verify(userRepository, never()).findAllWithCardsByIdIn(any());
+        verify(cacheBatchOperations, never()).putAll(any(), any());
+    }
+}